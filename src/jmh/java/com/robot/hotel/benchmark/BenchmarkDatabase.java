@@ -0,0 +1,127 @@
+package com.robot.hotel.benchmark;
+
+import com.robot.hotel.HotelApplication;
+import com.robot.hotel.domain.ReservationStatus;
+import com.robot.hotel.domain.RoomType;
+import com.robot.hotel.service.RoomAvailabilityIndex;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boots the application against a fresh in-memory H2 database and seeds it with
+ * {@code rooms} rooms, one guest per room and {@code reservationsPerRoom}
+ * back-to-back stays per room, inserted with plain JDBC batches.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkDatabase {
+    static final LocalDate FIRST_CHECKIN = LocalDate.of(2020, 1, 1);
+    static final LocalDate FIRST_BIRTHDAY = LocalDate.of(1940, 1, 1);
+    static final int NIGHTS_PER_STAY = 2;
+    static final int DAYS_BETWEEN_STAYS = 3;
+    private static final int BATCH_SIZE = 1000;
+
+    @Param("1000")
+    public int rooms;
+
+    @Param("10")
+    public int reservationsPerRoom;
+
+    ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(HotelApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.devtools.restart.enabled=false",
+                        "--logging.level.root=WARN");
+        seed(context.getBean(JdbcTemplate.class));
+        restartSequences(context.getBean(JdbcTemplate.class));
+        context.getBean(RoomAvailabilityIndex.class).rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    long reservationCount() {
+        return (long) rooms * reservationsPerRoom;
+    }
+
+    private static void restartSequences(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("alter sequence guest_seq restart with (select coalesce(max(id), 0) + 50 from guest)");
+        jdbcTemplate.execute("alter sequence reservation_seq restart with (select coalesce(max(id), 0) + 50 from reservation)");
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        String roomSql = "insert into room (id, room_number, room_type, price_per_night, max_number_of_guests, is_available) values (?, ?, ?, ?, ?, ?)";
+        for (long room = 1; room <= rooms; room++) {
+            batch.add(new Object[]{room, (int) room, (room % 3 == 0 ? RoomType.DELUXE : RoomType.STANDARD).code(), 80.0 + room % 5 * 20, (int) (1 + room % 4), true});
+            flushIfFull(jdbcTemplate, batch, roomSql);
+        }
+        flush(jdbcTemplate, batch, roomSql);
+
+        String reservationSql = "insert into reservation (id, checkin_date, checkout_date, status, room_id) values (?, ?, ?, ?, ?)";
+        long reservationId = 1;
+        for (long room = 1; room <= rooms; room++) {
+            for (int stay = 0; stay < reservationsPerRoom; stay++) {
+                LocalDate checkin = FIRST_CHECKIN.plusDays((long) stay * DAYS_BETWEEN_STAYS);
+                batch.add(new Object[]{reservationId++, Date.valueOf(checkin), Date.valueOf(checkin.plusDays(NIGHTS_PER_STAY)), ReservationStatus.RESERVED.code(), room});
+                flushIfFull(jdbcTemplate, batch, reservationSql);
+            }
+        }
+        flush(jdbcTemplate, batch, reservationSql);
+        jdbcTemplate.update("insert into room_night (room_id, night, reservation_id) " +
+                "select r.room_id, dateadd(day, n.x, r.checkin_date), r.id from reservation r " +
+                "join system_range(0, (select coalesce(max(datediff(day, checkin_date, checkout_date)), 0) from reservation)) n " +
+                "on n.x < datediff(day, r.checkin_date, r.checkout_date)");
+
+        String guestSql = "insert into guest (id, first_name, last_name, date_of_birth, gender, passport_number, room_id, reservation_id) values (?, ?, ?, ?, ?, ?, ?, ?)";
+        for (long room = 1; room <= rooms; room++) {
+            long lastReservation = room * reservationsPerRoom;
+            batch.add(new Object[]{room, "Guest" + room, "Bench" + room % 1000, Date.valueOf(FIRST_BIRTHDAY.plusDays(room % 25_000)), room % 2 == 0 ? "female" : "male", "PB" + room, room, lastReservation});
+            flushIfFull(jdbcTemplate, batch, guestSql);
+        }
+        flush(jdbcTemplate, batch, guestSql);
+
+        String linkSql = "insert into reservation_guest (reservation_id, guest_id) values (?, ?)";
+        for (long id = 1; id < reservationId; id++) {
+            batch.add(new Object[]{id, (id - 1) / reservationsPerRoom + 1});
+            flushIfFull(jdbcTemplate, batch, linkSql);
+        }
+        flush(jdbcTemplate, batch, linkSql);
+    }
+
+    private static void flushIfFull(JdbcTemplate jdbcTemplate, List<Object[]> batch, String sql) {
+        if (batch.size() == BATCH_SIZE) {
+            flush(jdbcTemplate, batch, sql);
+        }
+    }
+
+    private static void flush(JdbcTemplate jdbcTemplate, List<Object[]> batch, String sql) {
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, batch);
+            batch.clear();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.robot.hotel.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.robot.hotel.rest.CompactJsonWriter;
+import com.robot.hotel.service.GuestService;
+import com.robot.hotel.service.ReservationService;
+import com.robot.hotel.service.RoomService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full listings built as DTOs and serialized with Jackson data binding against the compact
+ * path (row projections written with a JsonGenerator).
+ * Add {@code -prof gc} to compare allocation per listing, {@code gc.alloc.rate.norm}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListingBenchmark {
+
+    @State(Scope.Thread)
+    public static class Services {
+        RoomService roomService;
+        GuestService guestService;
+        ReservationService reservationService;
+        ObjectMapper objectMapper;
+        CompactJsonWriter compactJsonWriter;
+        // ObjectMapper.writeValue closes its target, which a null output stream would reject from then on.
+        final OutputStream out = new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        };
+
+        @Setup(Level.Trial)
+        public void resolve(BenchmarkDatabase database) {
+            roomService = database.bean(RoomService.class);
+            guestService = database.bean(GuestService.class);
+            reservationService = database.bean(ReservationService.class);
+            objectMapper = database.bean(ObjectMapper.class);
+            compactJsonWriter = database.bean(CompactJsonWriter.class);
+        }
+    }
+
+    @Benchmark
+    public void roomsAsDtos(Services services) throws IOException {
+        services.objectMapper.writeValue(services.out, services.roomService.findAll());
+    }
+
+    @Benchmark
+    public void roomsCompact(Services services) throws IOException {
+        services.compactJsonWriter.rooms(services.roomService::streamRows).writeTo(services.out);
+    }
+
+    @Benchmark
+    public void guestsAsDtos(Services services) throws IOException {
+        services.objectMapper.writeValue(services.out, services.guestService.findAll());
+    }
+
+    @Benchmark
+    public void guestsCompact(Services services) throws IOException {
+        services.compactJsonWriter.guests(services.guestService::streamRows).writeTo(services.out);
+    }
+
+    @Benchmark
+    public void reservationsAsDtos(Services services) throws IOException {
+        services.objectMapper.writeValue(services.out, services.reservationService.findAll());
+    }
+
+    @Benchmark
+    public void reservationsCompact(Services services) throws IOException {
+        services.compactJsonWriter.reservations(services.reservationService::streamRows).writeTo(services.out);
+    }
+}
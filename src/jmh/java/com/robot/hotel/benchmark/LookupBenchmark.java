@@ -0,0 +1,85 @@
+package com.robot.hotel.benchmark;
+
+import com.robot.hotel.domain.Guest;
+import com.robot.hotel.domain.Reservation;
+import com.robot.hotel.domain.Room;
+import com.robot.hotel.repository.GuestRepository;
+import com.robot.hotel.repository.ReservationRepository;
+import com.robot.hotel.repository.RoomNightRepository;
+import com.robot.hotel.repository.RoomRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-column lookups that the repositories filter on. Run it with enough rows
+ * to make a full scan visible, e.g. -p rooms=100000 -p reservationsPerRoom=10.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LookupBenchmark {
+
+    @State(Scope.Thread)
+    public static class Key {
+        private final SplittableRandom random = new SplittableRandom(42);
+        GuestRepository guestRepository;
+        RoomRepository roomRepository;
+        ReservationRepository reservationRepository;
+        RoomNightRepository roomNightRepository;
+        int room;
+        LocalDate checkin;
+
+        @Setup(Level.Trial)
+        public void resolve(BenchmarkDatabase database) {
+            guestRepository = database.bean(GuestRepository.class);
+            roomRepository = database.bean(RoomRepository.class);
+            reservationRepository = database.bean(ReservationRepository.class);
+            roomNightRepository = database.bean(RoomNightRepository.class);
+        }
+
+        @Setup(Level.Invocation)
+        public void next(BenchmarkDatabase database) {
+            room = 1 + random.nextInt(database.rooms);
+            checkin = BenchmarkDatabase.FIRST_CHECKIN.plusDays(
+                    (long) random.nextInt(database.reservationsPerRoom) * BenchmarkDatabase.DAYS_BETWEEN_STAYS);
+        }
+    }
+
+    @Benchmark
+    public Optional<Guest> findByPassportNumber(Key key) {
+        return key.guestRepository.findByPassportNumber("PB" + key.room);
+    }
+
+    @Benchmark
+    public Optional<Room> findByRoomNumber(Key key) {
+        return key.roomRepository.findByRoomNumber(key.room);
+    }
+
+    @Benchmark
+    public boolean existsBooked(Key key) {
+        return key.roomNightRepository.existsBooked((long) key.room, key.checkin, key.checkin.plusDays(1));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Reservation> findByCheckinDate(Key key) {
+        return key.reservationRepository.findByCheckinDate(key.checkin);
+    }
+}
@@ -0,0 +1,59 @@
+package com.robot.hotel.benchmark;
+
+import com.robot.hotel.domain.Room;
+import com.robot.hotel.repository.RoomRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads every room as an entity in a read-write transaction, which snapshots each one and
+ * dirty-checks it at commit, against a read-only one, which does neither. Add
+ * {@code -prof gc} to compare allocation per read, {@code gc.alloc.rate.norm}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadOnlyTransactionBenchmark {
+
+    @State(Scope.Thread)
+    public static class Transactions {
+        RoomRepository roomRepository;
+        TransactionTemplate readWrite;
+        TransactionTemplate readOnly;
+
+        @Setup(Level.Trial)
+        public void resolve(BenchmarkDatabase database) {
+            roomRepository = database.bean(RoomRepository.class);
+            PlatformTransactionManager transactionManager = database.bean(PlatformTransactionManager.class);
+            readWrite = new TransactionTemplate(transactionManager);
+            readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+        }
+    }
+
+    @Benchmark
+    public List<Room> readWrite(Transactions transactions) {
+        return transactions.readWrite.execute(status -> transactions.roomRepository.findAll());
+    }
+
+    @Benchmark
+    public List<Room> readOnly(Transactions transactions) {
+        return transactions.readOnly.execute(status -> transactions.roomRepository.findAll());
+    }
+}
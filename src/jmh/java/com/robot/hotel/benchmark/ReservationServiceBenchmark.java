@@ -0,0 +1,130 @@
+package com.robot.hotel.benchmark;
+
+import com.robot.hotel.domain.Reservation;
+import com.robot.hotel.domain.ReservationStatus;
+import com.robot.hotel.dto.GuestDto;
+import com.robot.hotel.dto.ReservationDto;
+import com.robot.hotel.service.GuestService;
+import com.robot.hotel.service.ReservationService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReservationServiceBenchmark {
+    private static final int LOADED_RESERVATIONS = 1000;
+
+    @State(Scope.Thread)
+    public static class Booking {
+        ReservationService reservationService;
+        JdbcTemplate jdbcTemplate;
+        long roomId;
+        LocalDate checkin;
+        private long bookings;
+        private int threadIndex;
+        private int threadCount;
+
+        @Setup(Level.Trial)
+        public void resolve(BenchmarkDatabase database, ThreadParams threads) {
+            reservationService = database.bean(ReservationService.class);
+            jdbcTemplate = database.bean(JdbcTemplate.class);
+            threadIndex = threads.getThreadIndex();
+            threadCount = threads.getThreadCount();
+        }
+
+        /**
+         * Walks the rooms round-robin with stays after the seeded ones, and reopens the
+         * room because every booking marks it unavailable. Threads interleave on the walk,
+         * so with {@code -t N} they contend for the room locks only when there are fewer
+         * rooms than threads; compare {@code -p rooms=1} with the default to see the lock cost.
+         */
+        @Setup(Level.Invocation)
+        public void next(BenchmarkDatabase database) {
+            long booking = threadIndex + bookings * threadCount;
+            roomId = 1 + booking % database.rooms;
+            long slot = database.reservationsPerRoom + booking / database.rooms;
+            checkin = BenchmarkDatabase.FIRST_CHECKIN.plusDays(slot * BenchmarkDatabase.DAYS_BETWEEN_STAYS);
+            bookings++;
+            jdbcTemplate.update("update room set is_available = true where id = ?", roomId);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Loaded {
+        private final SplittableRandom random = new SplittableRandom(42);
+        ReservationService reservationService;
+        GuestService guestService;
+        List<Reservation> reservations;
+
+        @Setup(Level.Trial)
+        public void load(BenchmarkDatabase database) {
+            reservationService = database.bean(ReservationService.class);
+            guestService = database.bean(GuestService.class);
+            long count = Math.min(LOADED_RESERVATIONS, database.reservationCount());
+            EntityManager entityManager = database.bean(EntityManagerFactory.class).createEntityManager();
+            try {
+                reservations = entityManager.createQuery("select distinct r from Reservation r join fetch r.room "
+                                + "left join fetch r.guests where r.id in :ids", Reservation.class)
+                        .setParameter("ids", LongStream.rangeClosed(1, count).boxed().toList())
+                        .getResultList();
+            } finally {
+                entityManager.close();
+            }
+        }
+
+        Reservation any() {
+            return reservations.get(random.nextInt(reservations.size()));
+        }
+    }
+
+    @Benchmark
+    public Reservation createReservation(Booking booking) {
+        Reservation reservation = Reservation.builder()
+                .checkinDate(booking.checkin)
+                .checkoutDate(booking.checkin.plusDays(BenchmarkDatabase.NIGHTS_PER_STAY))
+                .status(ReservationStatus.RESERVED)
+                .build();
+        booking.reservationService.createReservation(reservation, List.of(booking.roomId), booking.roomId);
+        return reservation;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public ReservationDto buildReservationDto(Loaded loaded) {
+        return ReservationService.buildReservationDto(loaded.any());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<ReservationDto> findAllReservations(Loaded loaded) {
+        return loaded.reservationService.findAll();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<GuestDto> findAllGuests(Loaded loaded) {
+        return loaded.guestService.findAll();
+    }
+}
@@ -0,0 +1,58 @@
+package com.robot.hotel.benchmark;
+
+import com.robot.hotel.dto.RoomDto;
+import com.robot.hotel.service.RoomService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoomServiceBenchmark {
+
+    @State(Scope.Thread)
+    public static class Lookup {
+        private final SplittableRandom random = new SplittableRandom(42);
+        RoomService roomService;
+        long roomId;
+        LocalDate checkin;
+
+        @Setup(Level.Trial)
+        public void resolve(BenchmarkDatabase database) {
+            roomService = database.bean(RoomService.class);
+        }
+
+        @Setup(Level.Invocation)
+        public void next(BenchmarkDatabase database) {
+            roomId = 1 + random.nextInt(database.rooms);
+            checkin = BenchmarkDatabase.FIRST_CHECKIN.plusDays(random.nextInt(database.reservationsPerRoom * BenchmarkDatabase.DAYS_BETWEEN_STAYS));
+        }
+    }
+
+    @Benchmark
+    public boolean isRoomAvailable(Lookup lookup) {
+        return lookup.roomService.isRoomAvailable(lookup.roomId, lookup.checkin, lookup.checkin.plusDays(1));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<RoomDto> findAll(Lookup lookup) {
+        return lookup.roomService.findAll();
+    }
+}
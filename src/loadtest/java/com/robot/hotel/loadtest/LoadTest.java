@@ -0,0 +1,238 @@
+package com.robot.hotel.loadtest;
+
+import com.robot.hotel.HotelApplication;
+import com.robot.hotel.domain.ReservationStatus;
+import com.robot.hotel.domain.RoomType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Boots the application once per configuration on a fresh file database, seeds it and
+ * drives the selected calls at increasing concurrency, printing throughput and latency
+ * percentiles for every stage. The calls are {@code book} ({@code POST
+ * /reservations/guestIds/{id}}), {@code rooms} ({@code GET /rooms}) and {@code reservation}
+ * ({@code GET /reservations/{id}}).
+ * <p>
+ * Each booking takes a room no earlier request has used, because a booked room is marked
+ * unavailable. Room listings use the keyset form of {@code GET /rooms} from a random
+ * starting id; the unpaged form grows with the table rather than with the configuration.
+ * <p>
+ * Arguments are {@code key=value} pairs: {@code profiles} (default {@code default,perf};
+ * join profiles with {@code +}, as in {@code perf+virtual}), {@code calls} (default
+ * {@code book,rooms}), {@code concurrency} (default {@code 1,4,16,64}), {@code requests}
+ * per stage and call (default 2000) and {@code pageSize} (default 50).
+ */
+public class LoadTest {
+    private static final LocalDate CHECKIN = LocalDate.of(2030, 1, 1);
+    private static final int WARMUP_REQUESTS = 500;
+    private static final int SEED_BATCH_SIZE = 1000;
+    private static final int SEEDED_RESERVATIONS = 1000;
+
+    private final List<String> calls;
+    private final int[] concurrencyLevels;
+    private final int requests;
+    private final int pageSize;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private LoadTest(List<String> calls, int[] concurrencyLevels, int requests, int pageSize) {
+        this.calls = calls;
+        this.concurrencyLevels = concurrencyLevels;
+        this.requests = requests;
+        this.pageSize = pageSize;
+    }
+
+    public static void main(String[] args) throws Exception {
+        // Devtools would otherwise restart the app by re-running this main method with Spring's arguments.
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            options.put(pair[0], pair.length > 1 ? pair[1] : "");
+        }
+        LoadTest loadTest = new LoadTest(
+                List.of(options.getOrDefault("calls", "book,rooms").split(",")),
+                Arrays.stream(options.getOrDefault("concurrency", "1,4,16,64").split(",")).mapToInt(Integer::parseInt).toArray(),
+                Integer.parseInt(options.getOrDefault("requests", "2000")),
+                Integer.parseInt(options.getOrDefault("pageSize", "50")));
+
+        List<StageResult> results = new ArrayList<>();
+        for (String profile : options.getOrDefault("profiles", "default,perf").split(",")) {
+            results.addAll(loadTest.run(profile));
+        }
+
+        System.out.printf("%n%-14s %-12s %11s %10s %9s %9s %9s %7s%n",
+                "profile", "call", "concurrency", "req/s", "p50 ms", "p99 ms", "max ms", "errors");
+        for (StageResult result : results) {
+            System.out.printf("%-14s %-12s %11d %10.1f %9.2f %9.2f %9.2f %7d%n",
+                    result.profile(), result.call(), result.concurrency(), result.throughput(),
+                    result.p50Millis(), result.p99Millis(), result.maxMillis(), result.errors());
+        }
+    }
+
+    private List<StageResult> run(String profile) throws Exception {
+        Path directory = Files.createTempDirectory("hotel-loadtest-" + profile);
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(HotelApplication.class);
+        if (!"default".equals(profile)) {
+            builder.profiles(profile.split("\\+"));
+        }
+        int bookableRooms = requests * concurrencyLevels.length + WARMUP_REQUESTS;
+        int rooms = bookableRooms + SEEDED_RESERVATIONS;
+        try (ConfigurableApplicationContext context = builder.run(
+                "--server.port=0",
+                "--hotel.db.path=" + directory.resolve("hotel"),
+                "--logging.level.root=WARN")) {
+            seed(context.getBean(JdbcTemplate.class), bookableRooms);
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            AtomicInteger nextRoom = new AtomicInteger(1);
+
+            Map<String, Request> requestsByCall = Map.of(
+                    "book", () -> book(baseUrl, nextRoom.getAndIncrement()),
+                    "rooms", () -> listRooms(baseUrl, rooms),
+                    "reservation", () -> getReservation(baseUrl));
+
+            for (String call : calls) {
+                stage(profile, call, 4, WARMUP_REQUESTS / calls.size(), requestsByCall.get(call));
+            }
+            List<StageResult> results = new ArrayList<>();
+            for (int concurrency : concurrencyLevels) {
+                for (String call : calls) {
+                    results.add(stage(profile, call, concurrency, requests, requestsByCall.get(call)));
+                }
+            }
+            return results;
+        }
+    }
+
+    private StageResult stage(String profile, String call, int concurrency, int count, Request request) throws Exception {
+        long[] latencies = new long[count];
+        AtomicInteger next = new AtomicInteger();
+        AtomicLong errors = new AtomicLong();
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        long started = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int worker = 0; worker < concurrency; worker++) {
+                futures.add(workers.submit(() -> {
+                    for (int i = next.getAndIncrement(); i < count; i = next.getAndIncrement()) {
+                        long requestStarted = System.nanoTime();
+                        try {
+                            if (request.send() / 100 != 2) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (IOException | InterruptedException e) {
+                            errors.incrementAndGet();
+                        }
+                        latencies[i] = System.nanoTime() - requestStarted;
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            workers.shutdown();
+        }
+        long elapsed = System.nanoTime() - started;
+
+        Arrays.sort(latencies);
+        return new StageResult(profile, call, concurrency, count / (elapsed / 1e9),
+                percentile(latencies, 0.50), percentile(latencies, 0.99), latencies[count - 1] / 1e6, errors.get());
+    }
+
+    private int book(String baseUrl, int roomId) throws IOException, InterruptedException {
+        String body = "{\"checkinDate\":\"" + CHECKIN + "\",\"checkoutDate\":\"" + CHECKIN.plusDays(2)
+                + "\",\"status\":\"Reserved\",\"room\":{\"id\":" + roomId + "}}";
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/reservations/guestIds/" + roomId))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private int getReservation(String baseUrl) throws IOException, InterruptedException {
+        int reservationId = 1 + ThreadLocalRandom.current().nextInt(SEEDED_RESERVATIONS);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/reservations/" + reservationId))
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private int listRooms(String baseUrl, int rooms) throws IOException, InterruptedException {
+        int afterId = ThreadLocalRandom.current().nextInt(rooms);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/rooms?afterId=" + afterId + "&limit=" + pageSize))
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    /**
+     * One available room per future booking, each with a single guest sharing its id,
+     * followed by {@link #SEEDED_RESERVATIONS} rooms that already hold one reservation each.
+     */
+    private static void seed(JdbcTemplate jdbcTemplate, int bookableRooms) {
+        int rooms = bookableRooms + SEEDED_RESERVATIONS;
+        List<Object[]> roomRows = new ArrayList<>(SEED_BATCH_SIZE);
+        List<Object[]> guestRows = new ArrayList<>(SEED_BATCH_SIZE);
+        for (long id = 1; id <= rooms; id++) {
+            roomRows.add(new Object[]{id, (int) id, (id % 3 == 0 ? RoomType.DELUXE : RoomType.STANDARD).code(), 80.0 + id % 5 * 20, 2, true});
+            guestRows.add(new Object[]{id, "Guest", "Load" + id, "LT" + id});
+            if (roomRows.size() == SEED_BATCH_SIZE || id == rooms) {
+                jdbcTemplate.batchUpdate("insert into room (id, room_number, room_type, price_per_night, max_number_of_guests, is_available) values (?, ?, ?, ?, ?, ?)", roomRows);
+                jdbcTemplate.batchUpdate("insert into guest (id, first_name, last_name, passport_number) values (?, ?, ?, ?)", guestRows);
+                roomRows.clear();
+                guestRows.clear();
+            }
+        }
+
+        List<Object[]> reservationRows = new ArrayList<>(SEEDED_RESERVATIONS);
+        for (long id = 1; id <= SEEDED_RESERVATIONS; id++) {
+            reservationRows.add(new Object[]{id, CHECKIN, CHECKIN.plusDays(2), ReservationStatus.RESERVED.code(), bookableRooms + id});
+        }
+        jdbcTemplate.batchUpdate("insert into reservation (id, checkin_date, checkout_date, status, room_id) values (?, ?, ?, ?, ?)", reservationRows);
+        jdbcTemplate.update("insert into room_night (room_id, night, reservation_id) select room_id, checkin_date, id from reservation");
+        jdbcTemplate.update("insert into room_night (room_id, night, reservation_id) select room_id, dateadd(day, 1, checkin_date), id from reservation");
+
+        jdbcTemplate.execute("alter table room alter column id restart with " + (rooms + 1));
+        jdbcTemplate.execute("alter sequence guest_seq restart with " + (rooms + 50));
+        jdbcTemplate.execute("alter sequence reservation_seq restart with " + (SEEDED_RESERVATIONS + 50));
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    @FunctionalInterface
+    private interface Request {
+        int send() throws IOException, InterruptedException;
+    }
+
+    private record StageResult(String profile, String call, int concurrency, double throughput,
+                               double p50Millis, double p99Millis, double maxMillis, long errors) {
+    }
+}
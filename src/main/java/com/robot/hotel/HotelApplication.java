@@ -6,8 +6,14 @@ import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.core.Ordered;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+// Cache advice wraps the transaction so evictions happen after commit.
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+@EnableScheduling
 public class HotelApplication {
 
     public static void main(String[] args) {
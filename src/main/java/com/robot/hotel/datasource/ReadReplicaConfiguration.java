@@ -0,0 +1,77 @@
+package com.robot.hotel.datasource;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+
+/**
+ * Opt-in read replica. The application datasource becomes a router over two Hikari pools:
+ * read-only transactions ({@code @ReadOnlyTransaction}) take replica connections, everything
+ * else, Flyway included, takes primary ones. The replica pool copies the primary's settings
+ * and opens its connections read-only. Without {@code hotel.read-replica.url} it points at
+ * the primary's database, which locally stands in for a replica with no lag.
+ * <p>
+ * A replica may lag, so a read that must observe every commit made before it starts does
+ * not belong in a read-only transaction. The rebuilds of the in-memory structures
+ * ({@code RoomAvailabilityIndex}, {@code OccupancyStatistics}, {@code GuestSearchIndex})
+ * replay the changes committed after their snapshot and would lose or double-count the
+ * ones a stale snapshot missed, so they read in read-write transactions on the primary.
+ */
+@Configuration
+@EnableConfigurationProperties(ReadReplicaProperties.class)
+@ConditionalOnProperty(prefix = "hotel.read-replica", name = "enabled")
+public class ReadReplicaConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public ReadReplicaPools readReplicaPools(DataSourceProperties dataSourceProperties, ReadReplicaProperties properties,
+                                             Environment environment) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+
+        HikariConfig replica = new HikariConfig();
+        primary.copyStateTo(replica);
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+        if (StringUtils.hasText(properties.getUrl())) {
+            replica.setJdbcUrl(properties.getUrl());
+        }
+        if (StringUtils.hasText(properties.getUsername())) {
+            replica.setUsername(properties.getUsername());
+            replica.setPassword(properties.getPassword());
+        }
+        if (properties.getMaximumPoolSize() > 0) {
+            replica.setMaximumPoolSize(properties.getMaximumPoolSize());
+        }
+        return new ReadReplicaPools(primary, new HikariDataSource(replica));
+    }
+
+    @Bean
+    public DataSource dataSource(ReadReplicaPools pools) {
+        return new LazyConnectionDataSourceProxy(new ReadOnlyRoutingDataSource(pools.primary(), pools.replica()));
+    }
+
+    /**
+     * Hibernate otherwise holds a session's connection until the session closes, and with
+     * open-in-view that spans the request, so a write after a read would reuse the replica.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
@@ -0,0 +1,17 @@
+package com.robot.hotel.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * The two pools behind the routing datasource. They are deliberately not {@code DataSource}
+ * beans of their own, so the SQL log proxy wraps only the routing datasource and sees each
+ * statement once.
+ */
+public record ReadReplicaPools(HikariDataSource primary, HikariDataSource replica) implements AutoCloseable {
+
+    @Override
+    public void close() {
+        replica.close();
+        primary.close();
+    }
+}
@@ -0,0 +1,26 @@
+package com.robot.hotel.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "hotel.read-replica")
+public class ReadReplicaProperties {
+    /**
+     * Runs read-only transactions on a second connection pool; everything else stays on the primary.
+     */
+    private boolean enabled = false;
+    /**
+     * JDBC URL of the replica. Empty means the primary's URL, so locally the second pool reads the same H2 database.
+     */
+    private String url;
+    /**
+     * Replica login; empty means the primary's.
+     */
+    private String username;
+    private String password;
+    /**
+     * Connections in the replica pool; 0 means the same size as the primary pool.
+     */
+    private int maximumPoolSize = 0;
+}
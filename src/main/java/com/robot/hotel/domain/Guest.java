@@ -6,17 +6,26 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
 import java.util.List;
 
 @Data
 @Builder
-@Table
+@Table(
+        indexes = {
+                @Index(name = "idx_guest_last_name", columnList = "lastName"),
+                @Index(name = "idx_guest_date_of_birth", columnList = "dateOfBirth")
+        },
+        uniqueConstraints = @UniqueConstraint(name = "uk_guest_passport_number", columnNames = "passportNumber")
+)
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
 public class Guest {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "guest_seq")
+    @SequenceGenerator(name = "guest_seq", allocationSize = 50)
     private Long id;
 
     @Column
@@ -24,7 +33,7 @@ public class Guest {
     @Column
     private String lastName;
     @Column
-    private String dateOfBirth;
+    private LocalDate dateOfBirth;
     @Column
     private String gender;
     @Column
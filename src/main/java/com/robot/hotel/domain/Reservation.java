@@ -12,13 +12,19 @@ import java.util.List;
 
 @Data
 @Builder
-@Table
+@Table(
+        indexes = {
+                @Index(name = "idx_reservation_checkin_date", columnList = "checkinDate"),
+                @Index(name = "idx_reservation_room_dates", columnList = "room_id, checkinDate, checkoutDate")
+        }
+)
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
 public class Reservation {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservation_seq")
+    @SequenceGenerator(name = "reservation_seq", allocationSize = 50)
     private Long id;
 
     @Column
@@ -26,7 +32,7 @@ public class Reservation {
     @Column
     private LocalDate checkoutDate;
     @Column
-    private String status;
+    private ReservationStatus status;
 
     @ManyToMany
     @JoinTable(
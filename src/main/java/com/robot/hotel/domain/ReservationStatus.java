@@ -0,0 +1,62 @@
+package com.robot.hotel.domain;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Where a reservation is in its stay. Stored as the {@link #code()} by
+ * {@link ReservationStatusConverter}; codes are persisted, so existing ones must never be
+ * changed or reused.
+ */
+public enum ReservationStatus {
+    RESERVED(1, "Reserved"),
+    CHECKED_IN(2, "CheckedIn"),
+    COMPLETED(3, "Completed"),
+    CANCELLED(4, "Cancelled");
+
+    private static final ReservationStatus[] BY_CODE = new ReservationStatus[5];
+
+    static {
+        for (ReservationStatus status : values()) {
+            BY_CODE[status.code] = status;
+        }
+    }
+
+    private final short code;
+    private final String label;
+
+    ReservationStatus(int code, String label) {
+        this.code = (short) code;
+        this.label = label;
+    }
+
+    public short code() {
+        return code;
+    }
+
+    @JsonValue
+    public String label() {
+        return label;
+    }
+
+    public static ReservationStatus fromCode(short code) {
+        ReservationStatus status = code >= 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+        if (status == null) {
+            throw new IllegalArgumentException("Unknown reservation status code: " + code);
+        }
+        return status;
+    }
+
+    /**
+     * Accepts the label or the constant name, ignoring case.
+     */
+    @JsonCreator
+    public static ReservationStatus fromLabel(String value) {
+        for (ReservationStatus status : values()) {
+            if (status.label.equalsIgnoreCase(value) || status.name().equalsIgnoreCase(value)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown reservation status: " + value);
+    }
+}
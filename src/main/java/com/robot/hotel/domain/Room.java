@@ -7,7 +7,14 @@ import java.util.List;
 
 @Data
 @Builder
-@Table
+@Table(
+        indexes = {
+                @Index(name = "idx_room_type_capacity", columnList = "roomType, maxNumberOfGuests"),
+                @Index(name = "idx_room_is_available", columnList = "isAvailable"),
+                @Index(name = "idx_room_max_number_of_guests", columnList = "maxNumberOfGuests")
+        },
+        uniqueConstraints = @UniqueConstraint(name = "uk_room_room_number", columnNames = "roomNumber")
+)
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
@@ -18,8 +25,8 @@ public class Room {
 
     @Column
     private int roomNumber;
-    @Column
-    private String roomType;
+    @Column(nullable = false)
+    private RoomType roomType;
     @Column
     private double pricePerNight;
     @Column
@@ -0,0 +1,28 @@
+package com.robot.hotel.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A night of a room taken by a reservation. Rows are written and removed in bulk
+ * by {@link com.robot.hotel.repository.RoomNightRepository}, never one by one.
+ */
+@Data
+@Builder
+@Table(
+        name = "room_night",
+        indexes = {
+                @Index(name = "idx_room_night_night", columnList = "night"),
+                @Index(name = "idx_room_night_reservation", columnList = "reservation_id")
+        }
+)
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+public class RoomNight {
+    @EmbeddedId
+    private RoomNightId id;
+}
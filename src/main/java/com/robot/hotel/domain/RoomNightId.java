@@ -0,0 +1,25 @@
+package com.robot.hotel.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Embeddable
+public class RoomNightId implements Serializable {
+    @Column(name = "room_id")
+    private Long roomId;
+    @Column
+    private LocalDate night;
+    @Column(name = "reservation_id")
+    private Long reservationId;
+}
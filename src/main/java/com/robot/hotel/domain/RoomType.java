@@ -0,0 +1,67 @@
+package com.robot.hotel.domain;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Kinds of room. Stored as the {@link #code()} by {@link RoomTypeConverter}; codes are
+ * persisted, so existing ones must never be changed or reused.
+ */
+public enum RoomType {
+    STANDARD(1, "Standard"),
+    SINGLE(2, "Single"),
+    DOUBLE(3, "Double"),
+    TWIN(4, "Twin"),
+    DELUXE(5, "Deluxe"),
+    SUITE(6, "Suite"),
+    STUDIO(7, "Studio"),
+    LOFT(8, "Loft"),
+    FAMILY(9, "Family"),
+    PENTHOUSE(10, "Penthouse");
+
+    private static final RoomType[] BY_CODE = new RoomType[11];
+
+    static {
+        for (RoomType type : values()) {
+            BY_CODE[type.code] = type;
+        }
+    }
+
+    private final short code;
+    private final String label;
+
+    RoomType(int code, String label) {
+        this.code = (short) code;
+        this.label = label;
+    }
+
+    public short code() {
+        return code;
+    }
+
+    @JsonValue
+    public String label() {
+        return label;
+    }
+
+    public static RoomType fromCode(short code) {
+        RoomType type = code >= 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+        if (type == null) {
+            throw new IllegalArgumentException("Unknown room type code: " + code);
+        }
+        return type;
+    }
+
+    /**
+     * Accepts the label or the constant name, ignoring case.
+     */
+    @JsonCreator
+    public static RoomType fromLabel(String value) {
+        for (RoomType type : values()) {
+            if (type.label.equalsIgnoreCase(value) || type.name().equalsIgnoreCase(value)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown room type: " + value);
+    }
+}
@@ -0,0 +1,17 @@
+package com.robot.hotel.domain;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class RoomTypeConverter implements AttributeConverter<RoomType, Short> {
+    @Override
+    public Short convertToDatabaseColumn(RoomType type) {
+        return type == null ? null : type.code();
+    }
+
+    @Override
+    public RoomType convertToEntityAttribute(Short code) {
+        return code == null ? null : RoomType.fromCode(code);
+    }
+}
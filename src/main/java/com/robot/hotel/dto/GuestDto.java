@@ -3,6 +3,8 @@ package com.robot.hotel.dto;
 import lombok.Builder;
 import lombok.Data;
 
+import java.time.LocalDate;
+
 @Builder
 @Data
 public class GuestDto {
@@ -10,7 +12,7 @@ public class GuestDto {
 
     private String firstName;
     private String lastName;
-    private String dateOfBirth;
+    private LocalDate dateOfBirth;
     private String gender;
     private String passportNumber;
 }
@@ -0,0 +1,24 @@
+package com.robot.hotel.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Fields to change on one guest; null fields are left as they are.
+ */
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GuestPatch {
+    private Long id;
+    private String firstName;
+    private String lastName;
+    private LocalDate dateOfBirth;
+    private String gender;
+    private String passportNumber;
+}
@@ -0,0 +1,17 @@
+package com.robot.hotel.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Builder
+@Data
+public class LifecycleRunDto {
+    private LocalDate day;
+
+    private long checkedIn;
+    private long completed;
+    private long roomsOccupied;
+    private long roomsFreed;
+}
@@ -0,0 +1,16 @@
+package com.robot.hotel.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Builder
+@Data
+public class NightlyAvailabilityDto {
+    private LocalDate night;
+
+    private long totalRooms;
+    private long occupiedRooms;
+    private long freeRooms;
+}
@@ -0,0 +1,23 @@
+package com.robot.hotel.dto;
+
+import com.robot.hotel.domain.RoomType;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Builder
+@Data
+public class OccupancyStatsDto {
+    private LocalDate night;
+    private RoomType roomType;
+
+    private long rooms;
+    private long roomsSold;
+    private long guests;
+    private double revenue;
+
+    private double occupancyRate;
+    private double averageDailyRate;
+    private double revenuePerAvailableRoom;
+}
@@ -0,0 +1,12 @@
+package com.robot.hotel.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Builder
+@Data
+public class PatchResult {
+    private Long id;
+    private boolean updated;
+    private String error;
+}
@@ -0,0 +1,22 @@
+package com.robot.hotel.dto;
+
+import com.robot.hotel.domain.ReservationStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationBatchItem {
+    private LocalDate checkinDate;
+    private LocalDate checkoutDate;
+    private ReservationStatus status;
+    private Long roomId;
+    private List<Long> guestIds;
+}
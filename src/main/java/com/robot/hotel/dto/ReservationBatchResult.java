@@ -0,0 +1,13 @@
+package com.robot.hotel.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Builder
+@Data
+public class ReservationBatchResult {
+    private int index;
+    private boolean created;
+    private Long reservationId;
+    private String error;
+}
@@ -1,5 +1,6 @@
 package com.robot.hotel.dto;
 
+import com.robot.hotel.domain.ReservationStatus;
 import lombok.Builder;
 import lombok.Data;
 
@@ -13,7 +14,7 @@ public class ReservationDto {
 
     private LocalDate checkinDate;
     private LocalDate checkoutDate;
-    private String status;
+    private ReservationStatus status;
     private List<GuestDto> guests;
     private RoomDto room;
 }
@@ -1,5 +1,6 @@
 package com.robot.hotel.dto;
 
+import com.robot.hotel.domain.RoomType;
 import lombok.Builder;
 import lombok.Data;
 
@@ -9,7 +10,7 @@ public class RoomDto {
     private Long id;
 
     private int roomNumber;
-    private String roomType;
+    private RoomType roomType;
     private double pricePerNight;
     private int maxNumberOfGuests;
     private boolean isAvailable;
@@ -0,0 +1,23 @@
+package com.robot.hotel.dto;
+
+import com.robot.hotel.domain.RoomType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Fields to change on one room; null fields are left as they are.
+ */
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomPatch {
+    private Long id;
+    private Integer roomNumber;
+    private RoomType roomType;
+    private Double pricePerNight;
+    private Integer maxNumberOfGuests;
+    private Boolean isAvailable;
+}
@@ -0,0 +1,59 @@
+package com.robot.hotel.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.hibernate.BaseSessionEventListener;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts JDBC statements and the time spent executing them for one Hibernate
+ * session. With open-in-view each web request runs in a single session, so the
+ * recorded values are per request. Hibernate creates a listener per session
+ * through its no-arg constructor, hence the global registry.
+ */
+public class JdbcMetricsSessionListener extends BaseSessionEventListener {
+    private static final DistributionSummary STATEMENTS = DistributionSummary.builder("hotel.jdbc.statements")
+            .description("JDBC statements executed per session")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(Metrics.globalRegistry);
+    private static final Timer JDBC_TIME = Timer.builder("hotel.jdbc.time")
+            .description("Time spent executing JDBC statements per session")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(Metrics.globalRegistry);
+
+    private int statements;
+    private long jdbcNanos;
+    private long startedAt;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        startedAt = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        statements++;
+        jdbcNanos += System.nanoTime() - startedAt;
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        startedAt = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        statements++;
+        jdbcNanos += System.nanoTime() - startedAt;
+    }
+
+    @Override
+    public void end() {
+        if (statements > 0) {
+            STATEMENTS.record(statements);
+            JDBC_TIME.record(jdbcNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.robot.hotel.metrics;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+@EnableConfigurationProperties(SqlLogProperties.class)
+@ConditionalOnProperty(prefix = "hotel.sql-log", name = "enabled", matchIfMissing = true)
+public class SqlLogConfiguration {
+
+    @Bean
+    public SqlStatementLog sqlStatementLog(SqlLogProperties properties) {
+        return new SqlStatementLog(properties);
+    }
+
+    @Bean
+    public SqlStatsEndpoint sqlStatsEndpoint(SqlStatementLog sqlStatementLog) {
+        return new SqlStatsEndpoint(sqlStatementLog);
+    }
+
+    @Bean
+    public static BeanPostProcessor sqlLogDataSourceProxy(ObjectProvider<SqlStatementLog> sqlStatementLog) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(sqlStatementLog.getObject())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
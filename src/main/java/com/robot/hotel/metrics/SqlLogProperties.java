@@ -0,0 +1,31 @@
+package com.robot.hotel.metrics;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "hotel.sql-log")
+public class SqlLogProperties {
+    /**
+     * Wraps the datasource and records every statement. Turning it off removes the proxy entirely.
+     */
+    private boolean enabled = true;
+    /**
+     * Logs one in this many statements; 0 disables sampling.
+     */
+    private int sampleRate = 1000;
+    /**
+     * Statements at least this slow are always logged with their bind parameters.
+     */
+    private Duration slowQueryThreshold = Duration.ofMillis(200);
+    /**
+     * Upper bound on distinct statement shapes kept for the actuator endpoint.
+     */
+    private int maxShapes = 500;
+    /**
+     * Upper bound on distinct SQL strings whose shape is remembered instead of recomputed.
+     */
+    private int maxCachedStatements = 2000;
+}
@@ -0,0 +1,147 @@
+package com.robot.hotel.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Replaces show-sql. Every statement is counted under its shape, with literals and
+ * IN lists collapsed. The shape of each SQL string is remembered, for up to
+ * {@code maxCachedStatements} strings, so a repeated statement is not rescanned.
+ * Only one in {@code sampleRate} statements is logged, while statements over the
+ * slow-query threshold are always logged with their bind parameters. The
+ * {@code hotel.sql} logger goes through an async appender, so the JDBC thread never
+ * waits on the console.
+ */
+@Slf4j(topic = "hotel.sql")
+public class SqlStatementLog implements QueryExecutionListener {
+    static final String OTHER_SHAPES = "<other>";
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final SqlLogProperties properties;
+    private final Map<String, ShapeCounters> shapes = new ConcurrentHashMap<>();
+    private final Map<String, String> shapesBySql = new ConcurrentHashMap<>();
+    private final AtomicLong executed = new AtomicLong();
+
+    public SqlStatementLog(SqlLogProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long elapsedMillis = execInfo.getElapsedTime();
+        boolean slow = elapsedMillis >= properties.getSlowQueryThreshold().toMillis();
+        int sampleRate = properties.getSampleRate();
+        boolean sampled = sampleRate > 0 && executed.incrementAndGet() % sampleRate == 0;
+
+        for (QueryInfo queryInfo : queryInfoList) {
+            String shape = cachedShapeOf(queryInfo.getQuery());
+            countersFor(shape).record(elapsedMillis, !execInfo.isSuccess());
+            if (slow) {
+                log.warn("Slow statement took {} ms (batch size {}): {} params {}", elapsedMillis,
+                        execInfo.getBatchSize(), queryInfo.getQuery(), parameters(queryInfo));
+            } else if (sampled && log.isInfoEnabled()) {
+                log.info("Sampled statement took {} ms: {}", elapsedMillis, queryInfo.getQuery());
+            }
+        }
+    }
+
+    public List<ShapeStats> statistics() {
+        return shapes.entrySet().stream()
+                .map(entry -> entry.getValue().snapshot(entry.getKey()))
+                .sorted(Comparator.comparingLong(ShapeStats::totalMillis).reversed())
+                .collect(Collectors.toList());
+    }
+
+    public void reset() {
+        shapes.clear();
+    }
+
+    int cachedStatements() {
+        return shapesBySql.size();
+    }
+
+    private String cachedShapeOf(String sql) {
+        String shape = shapesBySql.get(sql);
+        if (shape != null) {
+            return shape;
+        }
+        shape = shapeOf(sql);
+        if (shapesBySql.size() < properties.getMaxCachedStatements()) {
+            shapesBySql.putIfAbsent(sql, shape);
+        }
+        return shape;
+    }
+
+    static String shapeOf(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = WHITESPACE.matcher(shape).replaceAll(" ").trim();
+        return IN_LIST.matcher(shape).replaceAll("(?...)");
+    }
+
+    private ShapeCounters countersFor(String shape) {
+        ShapeCounters counters = shapes.get(shape);
+        if (counters != null) {
+            return counters;
+        }
+        if (shapes.size() >= properties.getMaxShapes()) {
+            return shapes.computeIfAbsent(OTHER_SHAPES, key -> new ShapeCounters());
+        }
+        return shapes.computeIfAbsent(shape, key -> new ShapeCounters());
+    }
+
+    private static List<List<Object>> parameters(QueryInfo queryInfo) {
+        return queryInfo.getParametersList().stream()
+                .map(operations -> operations.stream()
+                        .map(ParameterSetOperation::getArgs)
+                        .map(args -> args.length > 1 ? args[1] : null)
+                        .collect(Collectors.toList()))
+                .collect(Collectors.toList());
+    }
+
+    public record ShapeStats(String shape, long count, long errors, long totalMillis, double meanMillis, long maxMillis) {
+    }
+
+    private static final class ShapeCounters {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder totalMillis = new LongAdder();
+        private final AtomicLong maxMillis = new AtomicLong();
+
+        void record(long elapsedMillis, boolean failed) {
+            count.increment();
+            totalMillis.add(elapsedMillis);
+            if (failed) {
+                errors.increment();
+            }
+            maxMillis.accumulateAndGet(elapsedMillis, Math::max);
+        }
+
+        ShapeStats snapshot(String shape) {
+            long executions = count.sum();
+            long total = totalMillis.sum();
+            return new ShapeStats(shape, executions, errors.sum(), total,
+                    executions == 0 ? 0 : (double) total / executions, maxMillis.get());
+        }
+    }
+}
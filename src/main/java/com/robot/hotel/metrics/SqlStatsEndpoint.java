@@ -0,0 +1,27 @@
+package com.robot.hotel.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.List;
+
+/**
+ * {@code /actuator/sqlstats}: per statement shape counts and timings, most expensive first.
+ */
+@Endpoint(id = "sqlstats")
+@RequiredArgsConstructor
+public class SqlStatsEndpoint {
+    private final SqlStatementLog sqlStatementLog;
+
+    @ReadOperation
+    public List<SqlStatementLog.ShapeStats> statistics() {
+        return sqlStatementLog.statistics();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        sqlStatementLog.reset();
+    }
+}
@@ -1,13 +1,46 @@
 package com.robot.hotel.repository;
 
 import com.robot.hotel.domain.Guest;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface GuestRepository extends JpaRepository<Guest, Long> {
-    Optional<Guest> findByLastName(String lastname);
     Optional<Guest> findByPassportNumber(String passportNumber);
+
+    Optional<GuestRow> findRowById(Long id);
+    Optional<GuestRow> findRowByLastName(String lastName);
+    Optional<GuestRow> findRowByPassportNumber(String passportNumber);
+    List<GuestRow> findRowsByIdInOrderById(Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.robot.hotel.repository.GuestRow(g.id, g.firstName, g.lastName, g.dateOfBirth, g.gender, g.passportNumber) " +
+            "from Guest g order by g.id")
+    Stream<GuestRow> streamRows();
+
+    @Query("select new com.robot.hotel.repository.GuestRow(g.id, g.firstName, g.lastName, g.dateOfBirth, g.gender, g.passportNumber) " +
+            "from Guest g where g.id > :lastId order by g.id")
+    List<GuestRow> findRowsAfter(@Param("lastId") Long lastId, Pageable pageable);
+
+    /**
+     * Guests born in [from, to], youngest last; a range scan of the date of birth index.
+     */
+    List<GuestRow> findRowsByDateOfBirthBetweenOrderByDateOfBirthAscIdAsc(LocalDate from, LocalDate to, Pageable pageable);
+
+    @Query("select new com.robot.hotel.repository.GuestRow(g.id, g.firstName, g.lastName, g.dateOfBirth, g.gender, g.passportNumber) " +
+            "from Reservation r join r.guests g where r.id = :reservationId and g.dateOfBirth > :bornAfter order by g.dateOfBirth, g.id")
+    List<GuestRow> findRowsByReservationIdBornAfter(@Param("reservationId") Long reservationId, @Param("bornAfter") LocalDate bornAfter);
 }
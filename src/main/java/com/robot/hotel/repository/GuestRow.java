@@ -0,0 +1,9 @@
+package com.robot.hotel.repository;
+
+import java.time.LocalDate;
+
+/**
+ * A guest's listing columns, read without hydrating the entity.
+ */
+public record GuestRow(Long id, String firstName, String lastName, LocalDate dateOfBirth, String gender, String passportNumber) {
+}
@@ -0,0 +1,9 @@
+package com.robot.hotel.repository;
+
+import java.time.LocalDate;
+
+public interface NightOccupancy {
+    LocalDate getNight();
+
+    long getOccupiedRooms();
+}
@@ -1,14 +1,98 @@
 package com.robot.hotel.repository;
 
 import com.robot.hotel.domain.Reservation;
+import com.robot.hotel.domain.ReservationStatus;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface ReservationRepository extends JpaRepository<Reservation, Long> {
+    @EntityGraph(attributePaths = {"room", "guests"})
     List<Reservation> findByCheckinDate(LocalDate checkinDate);
 
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select r.id as id, r.room.id as roomId, r.checkinDate as checkinDate, r.checkoutDate as checkoutDate " +
+            "from Reservation r where r.room is not null order by r.room.id, r.checkinDate")
+    Stream<ReservationStay> streamAllStays();
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.robot.hotel.repository.StayRevenue(rm.roomType, rm.pricePerNight, r.checkinDate, r.checkoutDate, size(r.guests)) " +
+            "from Reservation r join r.room rm")
+    Stream<StayRevenue> streamStayRevenue();
+
+    @Query("select new com.robot.hotel.repository.StayRevenue(rm.roomType, rm.pricePerNight, r.checkinDate, r.checkoutDate, size(r.guests)) " +
+            "from Reservation r join r.room rm where rm.id = :roomId")
+    List<StayRevenue> findStayRevenueByRoomId(@Param("roomId") Long roomId);
+
+    @Query("select r.id as id, r.room.id as roomId, r.checkinDate as checkinDate, r.checkoutDate as checkoutDate " +
+            "from Reservation r where r.room.id in :roomIds")
+    List<ReservationStay> findStaysByRoomIdIn(@Param("roomIds") Collection<Long> roomIds);
+
+    @Query(value = "select r.id from Reservation r", countQuery = "select count(r) from Reservation r")
+    Page<Long> findIds(Pageable pageable);
+
+    @Query("select r.id from Reservation r where r.id > :lastId order by r.id")
+    List<Long> findIdsAfter(@Param("lastId") Long lastId, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.robot.hotel.repository.ReservationRow(r.id, r.checkinDate, r.checkoutDate, r.status, " +
+            "rm.id, rm.roomNumber, rm.roomType, rm.pricePerNight, rm.maxNumberOfGuests, rm.isAvailable, " +
+            "g.id, g.firstName, g.lastName, g.dateOfBirth, g.gender, g.passportNumber) " +
+            "from Reservation r left join r.room rm left join r.guests g order by r.id, g.id")
+    Stream<ReservationRow> streamRows();
+
+    @Query("select new com.robot.hotel.repository.ReservationRow(r.id, r.checkinDate, r.checkoutDate, r.status, " +
+            "rm.id, rm.roomNumber, rm.roomType, rm.pricePerNight, rm.maxNumberOfGuests, rm.isAvailable, " +
+            "g.id, g.firstName, g.lastName, g.dateOfBirth, g.gender, g.passportNumber) " +
+            "from Reservation r left join r.room rm left join r.guests g where r.id in :ids order by r.id, g.id")
+    List<ReservationRow> findRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select new com.robot.hotel.repository.ReservationRow(r.id, r.checkinDate, r.checkoutDate, r.status, " +
+            "rm.id, rm.roomNumber, rm.roomType, rm.pricePerNight, rm.maxNumberOfGuests, rm.isAvailable, " +
+            "g.id, g.firstName, g.lastName, g.dateOfBirth, g.gender, g.passportNumber) " +
+            "from Reservation r left join r.room rm left join r.guests g where r.id = :id order by g.id")
+    List<ReservationRow> findRowsById(@Param("id") Long id);
+
+    @Query("select min(r.id) from Reservation r")
+    Long findMinId();
+
+    @Query("select max(r.id) from Reservation r")
+    Long findMaxId();
+
+    /**
+     * Moves reservations in the id range whose stay covers {@code today} to {@code checkedIn},
+     * unless they are already in one of the {@code skipped} statuses.
+     */
+    @Modifying
+    @Query("update Reservation r set r.status = :checkedIn where r.id between :fromId and :toId " +
+            "and r.checkinDate <= :today and r.checkoutDate > :today " +
+            "and (r.status is null or r.status not in :skipped)")
+    int checkInDue(@Param("fromId") Long fromId, @Param("toId") Long toId, @Param("today") LocalDate today,
+                   @Param("checkedIn") ReservationStatus checkedIn, @Param("skipped") Collection<ReservationStatus> skipped);
+
+    /**
+     * Moves reservations in the id range whose stay has ended by {@code today} to {@code completed},
+     * unless they are already in one of the {@code skipped} statuses.
+     */
+    @Modifying
+    @Query("update Reservation r set r.status = :completed where r.id between :fromId and :toId " +
+            "and r.checkoutDate <= :today " +
+            "and (r.status is null or r.status not in :skipped)")
+    int completeDue(@Param("fromId") Long fromId, @Param("toId") Long toId, @Param("today") LocalDate today,
+                    @Param("completed") ReservationStatus completed, @Param("skipped") Collection<ReservationStatus> skipped);
 }
@@ -0,0 +1,18 @@
+package com.robot.hotel.repository;
+
+import com.robot.hotel.domain.ReservationStatus;
+import com.robot.hotel.domain.RoomType;
+
+import java.time.LocalDate;
+
+/**
+ * One reservation joined with its room and one of its guests. A reservation spans as many
+ * consecutive rows as it has guests, or one row with null guest columns if it has none.
+ * Room columns are boxed because a reservation may have no room.
+ */
+public record ReservationRow(Long id, LocalDate checkinDate, LocalDate checkoutDate, ReservationStatus status,
+                             Long roomId, Integer roomNumber, RoomType roomType, Double pricePerNight,
+                             Integer maxNumberOfGuests, Boolean roomAvailable,
+                             Long guestId, String firstName, String lastName, LocalDate dateOfBirth,
+                             String gender, String passportNumber) {
+}
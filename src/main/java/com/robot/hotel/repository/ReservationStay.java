@@ -0,0 +1,10 @@
+package com.robot.hotel.repository;
+
+import java.time.LocalDate;
+
+public interface ReservationStay {
+    Long getId();
+    Long getRoomId();
+    LocalDate getCheckinDate();
+    LocalDate getCheckoutDate();
+}
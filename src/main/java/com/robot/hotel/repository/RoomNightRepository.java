@@ -0,0 +1,51 @@
+package com.robot.hotel.repository;
+
+import com.robot.hotel.domain.RoomNight;
+import com.robot.hotel.domain.RoomNightId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface RoomNightRepository extends JpaRepository<RoomNight, RoomNightId> {
+
+    /**
+     * Expands the stays of the given reservations into one row per night in a single statement.
+     * Flushes first so new reservations and room changes are visible to the select.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(nativeQuery = true, value = "insert into room_night (room_id, night, reservation_id) " +
+            "select r.room_id, dateadd(day, n.x, r.checkin_date), r.id from reservation r " +
+            "join system_range(0, (select coalesce(max(datediff(day, checkin_date, checkout_date)), 0) " +
+            "from reservation where id in :reservationIds)) n on n.x < datediff(day, r.checkin_date, r.checkout_date) " +
+            "where r.id in :reservationIds and r.room_id is not null")
+    int insertNights(@Param("reservationIds") Collection<Long> reservationIds);
+
+    @Modifying
+    @Query("delete from RoomNight n where n.id.reservationId = :reservationId")
+    int deleteByReservationId(@Param("reservationId") Long reservationId);
+
+    @Query("select count(n) > 0 from RoomNight n where n.id.roomId = :roomId " +
+            "and n.id.night >= :checkinDate and n.id.night < :checkoutDate")
+    boolean existsBooked(@Param("roomId") Long roomId,
+                         @Param("checkinDate") LocalDate checkinDate,
+                         @Param("checkoutDate") LocalDate checkoutDate);
+
+    @Query("select count(n) > 0 from RoomNight n where n.id.roomId = :roomId " +
+            "and n.id.night >= :checkinDate and n.id.night < :checkoutDate " +
+            "and n.id.reservationId <> :reservationId")
+    boolean existsBookedByOther(@Param("roomId") Long roomId,
+                                @Param("checkinDate") LocalDate checkinDate,
+                                @Param("checkoutDate") LocalDate checkoutDate,
+                                @Param("reservationId") Long reservationId);
+
+    @Query("select n.id.night as night, count(distinct n.id.roomId) as occupiedRooms from RoomNight n " +
+            "where n.id.night >= :from and n.id.night < :to group by n.id.night order by n.id.night")
+    List<NightOccupancy> countOccupiedRoomsByNight(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -1,17 +1,81 @@
 package com.robot.hotel.repository;
 
 import com.robot.hotel.domain.Room;
+import com.robot.hotel.domain.RoomType;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface RoomRepository extends JpaRepository<Room, Long>{
     Optional<Room> findByRoomNumber(int roomNumber);
-    List<Room> findByIsAvailable(boolean isAvailable);
-    List<Room> findByRoomType(String roomType);
-    List<Room> findByMaxNumberOfGuests(int maxNumberOfGuests);
 
+    Optional<RoomRow> findRowById(Long id);
+    Optional<RoomRow> findRowByRoomNumber(int roomNumber);
+    List<RoomRow> findRowsByIsAvailable(boolean isAvailable);
+    List<RoomRow> findRowsByRoomType(RoomType roomType);
+    List<RoomRow> findRowsByMaxNumberOfGuests(int maxNumberOfGuests);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from Room r where r.id = :id")
+    Optional<Room> findByIdForUpdate(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from Room r where r.id in :ids order by r.id")
+    List<Room> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.robot.hotel.repository.RoomRow(r.id, r.roomNumber, r.roomType, r.pricePerNight, r.maxNumberOfGuests, r.isAvailable) " +
+            "from Room r order by r.id")
+    Stream<RoomRow> streamRows();
+
+    @Query("select new com.robot.hotel.repository.RoomRow(r.id, r.roomNumber, r.roomType, r.pricePerNight, r.maxNumberOfGuests, r.isAvailable) " +
+            "from Room r where r.id > :lastId order by r.id")
+    List<RoomRow> findRowsAfter(@Param("lastId") Long lastId, Pageable pageable);
+
+    List<RoomRow> findRowsByMaxNumberOfGuestsGreaterThanEqualOrderByRoomNumber(int minGuests);
+
+    List<RoomRow> findRowsByRoomTypeAndMaxNumberOfGuestsGreaterThanEqualOrderByRoomNumber(RoomType roomType, int minGuests);
+
+    @Query("select r.roomType as roomType, count(r) as rooms from Room r group by r.roomType")
+    List<RoomTypeCount> countByRoomType();
+
+    @Query("select min(r.id) from Room r")
+    Long findMinId();
+
+    @Query("select max(r.id) from Room r")
+    Long findMaxId();
+
+    /**
+     * Marks rooms in the id range that have a booked night on {@code day} as unavailable.
+     * Only rows whose flag actually changes are written.
+     */
+    @Modifying
+    @Query("update Room r set r.isAvailable = false where r.id between :fromId and :toId and r.isAvailable = true " +
+            "and exists (select 1 from RoomNight n where n.id.roomId = r.id and n.id.night = :day)")
+    int markOccupied(@Param("fromId") Long fromId, @Param("toId") Long toId, @Param("day") LocalDate day);
+
+    /**
+     * Marks rooms in the id range without a booked night on {@code day} as available.
+     * Only rows whose flag actually changes are written.
+     */
+    @Modifying
+    @Query("update Room r set r.isAvailable = true where r.id between :fromId and :toId and r.isAvailable = false " +
+            "and not exists (select 1 from RoomNight n where n.id.roomId = r.id and n.id.night = :day)")
+    int markFree(@Param("fromId") Long fromId, @Param("toId") Long toId, @Param("day") LocalDate day);
 }
@@ -0,0 +1,9 @@
+package com.robot.hotel.repository;
+
+import com.robot.hotel.domain.RoomType;
+
+/**
+ * A room's listing columns, read without hydrating the entity.
+ */
+public record RoomRow(Long id, int roomNumber, RoomType roomType, double pricePerNight, int maxNumberOfGuests, boolean isAvailable) {
+}
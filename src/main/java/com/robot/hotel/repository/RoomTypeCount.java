@@ -0,0 +1,9 @@
+package com.robot.hotel.repository;
+
+import com.robot.hotel.domain.RoomType;
+
+public interface RoomTypeCount {
+    RoomType getRoomType();
+
+    long getRooms();
+}
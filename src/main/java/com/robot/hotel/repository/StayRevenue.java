@@ -0,0 +1,12 @@
+package com.robot.hotel.repository;
+
+import com.robot.hotel.domain.RoomType;
+
+import java.time.LocalDate;
+
+/**
+ * A record rather than an interface projection: the rebuild reads one per reservation,
+ * and constructing it directly avoids a proxy per row.
+ */
+public record StayRevenue(RoomType roomType, double pricePerNight, LocalDate checkinDate, LocalDate checkoutDate, int guests) {
+}
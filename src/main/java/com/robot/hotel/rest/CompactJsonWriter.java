@@ -0,0 +1,180 @@
+package com.robot.hotel.rest;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.robot.hotel.domain.RoomType;
+import com.robot.hotel.repository.GuestRow;
+import com.robot.hotel.repository.ReservationRow;
+import com.robot.hotel.repository.RoomRow;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Writes room, guest and reservation listings field by field from row projections, so
+ * no entity, builder or DTO is created per element and Jackson does not introspect a
+ * bean per element. The JSON is the same as Jackson writes for the DTO lists.
+ * <p>
+ * Unbounded listings are written as rows arrive; pages are rendered to a byte array
+ * so they are served on the request thread.
+ */
+@Component
+public class CompactJsonWriter {
+    private static final int BYTES_PER_ROW = 160;
+
+    private final JsonFactory jsonFactory;
+
+    public CompactJsonWriter(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public StreamingResponseBody rooms(Consumer<Consumer<RoomRow>> rows) {
+        return out -> write(out, rows, CompactJsonWriter::writeRoom);
+    }
+
+    public byte[] rooms(List<RoomRow> rows) {
+        return toBytes(rows, CompactJsonWriter::writeRoom);
+    }
+
+    public StreamingResponseBody guests(Consumer<Consumer<GuestRow>> rows) {
+        return out -> write(out, rows, CompactJsonWriter::writeGuest);
+    }
+
+    public byte[] guests(List<GuestRow> rows) {
+        return toBytes(rows, CompactJsonWriter::writeGuest);
+    }
+
+    /**
+     * Rows must arrive ordered by reservation id; each run of rows becomes one reservation.
+     */
+    public StreamingResponseBody reservations(Consumer<Consumer<ReservationRow>> rows) {
+        return out -> write(out, rows, new ReservationGroups());
+    }
+
+    public byte[] reservations(List<ReservationRow> rows) {
+        return toBytes(rows, new ReservationGroups());
+    }
+
+    private <T> byte[] toBytes(List<T> rows, RowWriter<T> rowWriter) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(rows.size(), 1) * BYTES_PER_ROW);
+        try {
+            write(out, rows::forEach, rowWriter);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private <T> void write(OutputStream out, Consumer<Consumer<T>> rows, RowWriter<T> rowWriter) throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+            rows.accept(row -> {
+                try {
+                    rowWriter.write(generator, row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            rowWriter.finish(generator);
+            generator.writeEndArray();
+        }
+    }
+
+    private static void writeRoom(JsonGenerator generator, RoomRow room) throws IOException {
+        writeRoom(generator, room.id(), room.roomNumber(), room.roomType(), room.pricePerNight(),
+                room.maxNumberOfGuests(), room.isAvailable());
+    }
+
+    private static void writeRoom(JsonGenerator generator, long id, int roomNumber, RoomType roomType,
+                                  double pricePerNight, int maxNumberOfGuests, boolean available) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", id);
+        generator.writeNumberField("roomNumber", roomNumber);
+        generator.writeStringField("roomType", roomType == null ? null : roomType.label());
+        generator.writeNumberField("pricePerNight", pricePerNight);
+        generator.writeNumberField("maxNumberOfGuests", maxNumberOfGuests);
+        generator.writeBooleanField("available", available);
+        generator.writeEndObject();
+    }
+
+    private static void writeGuest(JsonGenerator generator, GuestRow guest) throws IOException {
+        writeGuest(generator, guest.id(), guest.firstName(), guest.lastName(), guest.dateOfBirth(),
+                guest.gender(), guest.passportNumber());
+    }
+
+    private static void writeGuest(JsonGenerator generator, long id, String firstName, String lastName,
+                                   LocalDate dateOfBirth, String gender, String passportNumber) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", id);
+        generator.writeStringField("firstName", firstName);
+        generator.writeStringField("lastName", lastName);
+        writeDate(generator, "dateOfBirth", dateOfBirth);
+        generator.writeStringField("gender", gender);
+        generator.writeStringField("passportNumber", passportNumber);
+        generator.writeEndObject();
+    }
+
+    private static void writeDate(JsonGenerator generator, String field, LocalDate date) throws IOException {
+        generator.writeStringField(field, date == null ? null : date.toString());
+    }
+
+    @FunctionalInterface
+    private interface RowWriter<T> {
+        void write(JsonGenerator generator, T row) throws IOException;
+
+        default void finish(JsonGenerator generator) throws IOException {
+        }
+    }
+
+    /**
+     * Opens a reservation on the first of its rows, adds each row's guest and closes it,
+     * room last as in the DTO, when the next reservation starts or the rows end.
+     */
+    private static final class ReservationGroups implements RowWriter<ReservationRow> {
+        private ReservationRow open;
+
+        @Override
+        public void write(JsonGenerator generator, ReservationRow row) throws IOException {
+            if (open == null || !open.id().equals(row.id())) {
+                finish(generator);
+                open = row;
+                generator.writeStartObject();
+                generator.writeNumberField("id", row.id());
+                writeDate(generator, "checkinDate", row.checkinDate());
+                writeDate(generator, "checkoutDate", row.checkoutDate());
+                generator.writeStringField("status", row.status() == null ? null : row.status().label());
+                generator.writeArrayFieldStart("guests");
+            }
+            if (row.guestId() != null) {
+                writeGuest(generator, row.guestId(), row.firstName(), row.lastName(),
+                        row.dateOfBirth(), row.gender(), row.passportNumber());
+            }
+        }
+
+        @Override
+        public void finish(JsonGenerator generator) throws IOException {
+            if (open == null) {
+                return;
+            }
+            generator.writeEndArray();
+            generator.writeFieldName("room");
+            if (open.roomId() == null) {
+                generator.writeNull();
+            } else {
+                writeRoom(generator, open.roomId(), open.roomNumber(), open.roomType(),
+                        open.pricePerNight(), open.maxNumberOfGuests(), open.roomAvailable());
+            }
+            generator.writeEndObject();
+            open = null;
+        }
+    }
+}
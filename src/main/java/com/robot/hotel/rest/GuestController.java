@@ -2,39 +2,102 @@ package com.robot.hotel.rest;
 
 import com.robot.hotel.domain.Guest;
 import com.robot.hotel.dto.GuestDto;
+import com.robot.hotel.dto.GuestPatch;
 import com.robot.hotel.repository.GuestRepository;
 import com.robot.hotel.service.GuestService;
+import com.robot.hotel.service.GuestWriteBehind;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.RejectedExecutionException;
 
 @RequiredArgsConstructor
 @RestController
 public class GuestController {
     private final GuestService guestService;
+    private final GuestWriteBehind guestWriteBehind;
     private final GuestRepository guestRepository;
+    private final NdjsonWriter ndjsonWriter;
+    private final CompactJsonWriter compactJsonWriter;
 
     @GetMapping("/guests")
-    public ResponseEntity<List<GuestDto>> findAll() {
-        return ResponseEntity.ok(guestService.findAll());
+    public ResponseEntity<StreamingResponseBody> findAll() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(compactJsonWriter.guests(guestService::streamRows));
+    }
+
+    @GetMapping(value = "/guests", params = "limit")
+    public ResponseEntity<?> findAllAfter(@RequestParam(defaultValue = "0") Long afterId, @RequestParam int limit) {
+        if (!PageLimit.isValid(limit)) {
+            return ResponseEntity.badRequest().body(PageLimit.OUT_OF_RANGE);
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(compactJsonWriter.guests(guestService.findRowsAfter(afterId, limit)));
+    }
+
+    @GetMapping(value = "/guests", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> guestService.streamAll(ndjsonWriter.lines(out)));
+    }
+
+    @GetMapping("/guests/search")
+    public ResponseEntity<?> search(@RequestParam String q,
+                                    @RequestParam(defaultValue = "true") boolean fuzzy,
+                                    @RequestParam(defaultValue = "0") int page,
+                                    @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(guestService.search(q, fuzzy, page, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/guests/bornBetween")
+    public ResponseEntity<?> findBornBetween(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                             @RequestParam(defaultValue = "0") int page,
+                                             @RequestParam(defaultValue = "100") int size) {
+        if (page < 0) {
+            return ResponseEntity.badRequest().body(PageLimit.NEGATIVE_PAGE);
+        }
+        if (!PageLimit.isValid(size)) {
+            return ResponseEntity.badRequest().body(PageLimit.OUT_OF_RANGE_SIZE);
+        }
+        try {
+            return ResponseEntity.ok(guestService.findBornBetween(from, to, page, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/guests/minors")
+    public ResponseEntity<List<GuestDto>> findMinors(@RequestParam Long reservationId,
+                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(guestService.findMinors(reservationId, date != null ? date : LocalDate.now()));
     }
 
     @GetMapping("/guests/{id}")
     public ResponseEntity<GuestDto> findById(@PathVariable Long id) {
-        return guestService.findById(id)
-                .map(guest -> ResponseEntity.ok(GuestService.buildGuestDto(guest)))
+        return guestService.findDtoById(id)
+                .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/guests/findGuestsByIds/{guestIds}")
     public ResponseEntity<List<GuestDto>> findGuestsByIds(@PathVariable List<Long> guestIds) {
-        List<GuestDto> guests = guestService.findGuestsByIds(guestIds).stream()
-                .map(GuestService::buildGuestDto)
-                .collect(Collectors.toList());
+        List<GuestDto> guests = guestService.findGuestsByIds(guestIds);
         if (guests.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
@@ -44,14 +107,14 @@ public class GuestController {
     @GetMapping("/guests/findByLastName/{lastName}")
     public ResponseEntity<GuestDto> findByLastName(@PathVariable String lastName) {
         return guestService.findByLastName(lastName)
-                .map(guest -> ResponseEntity.ok(GuestService.buildGuestDto(guest)))
+                .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/guests/findByPassportNumber/{passportNumber}")
     public ResponseEntity<GuestDto> findByPassportNumber(@PathVariable String passportNumber) {
         return guestService.findByPassportNumber(passportNumber)
-                .map(guest -> ResponseEntity.ok(GuestService.buildGuestDto(guest)))
+                .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -62,6 +125,31 @@ public class GuestController {
         return ResponseEntity.status(HttpStatus.CREATED).build();
     }
 
+    @PatchMapping("/guests")
+    public ResponseEntity<?> patchGuests(@RequestBody List<GuestPatch> patches,
+                                         @RequestParam(defaultValue = "false") boolean deferred) {
+        try {
+            if (deferred) {
+                guestWriteBehind.offer(patches);
+                return ResponseEntity.accepted().build();
+            }
+            return ResponseEntity.ok(guestService.patchGuests(patches));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(e.getMessage());
+        }
+    }
+
+    @PatchMapping("/guests/{id}")
+    public ResponseEntity<?> patchGuest(@PathVariable Long id, @RequestBody GuestPatch patch,
+                                        @RequestParam(defaultValue = "false") boolean deferred) {
+        patch.setId(id);
+        return patchGuests(List.of(patch), deferred);
+    }
+
     @PutMapping("/guests/{id}/firstName")
     public ResponseEntity<String> updateFirstName(@PathVariable Long id, @RequestBody String firstName) {
         guestService.updateFirstName(id, firstName);
@@ -0,0 +1,33 @@
+package com.robot.hotel.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Writes each element handed to the returned consumer as one JSON line, so
+ * streaming endpoints never hold more than a single DTO in memory.
+ */
+@Component
+@RequiredArgsConstructor
+public class NdjsonWriter {
+    private static final byte NEWLINE = '\n';
+
+    private final ObjectMapper objectMapper;
+
+    public <T> Consumer<T> lines(OutputStream out) {
+        return element -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(element));
+                out.write(NEWLINE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+}
@@ -0,0 +1,20 @@
+package com.robot.hotel.rest;
+
+/**
+ * Bounds the {@code limit} of the keyset-paged listings, whose whole page is rendered
+ * into one byte array, and the {@code size} of the offset-paged ones, whose page is
+ * fetched in one round trip. Clients that need everything use the NDJSON stream instead.
+ */
+final class PageLimit {
+    static final int MAX = 1000;
+    static final String OUT_OF_RANGE = "Limit must be between 1 and " + MAX;
+    static final String OUT_OF_RANGE_SIZE = "Size must be between 1 and " + MAX;
+    static final String NEGATIVE_PAGE = "Page must not be negative";
+
+    private PageLimit() {
+    }
+
+    static boolean isValid(int limit) {
+        return limit >= 1 && limit <= MAX;
+    }
+}
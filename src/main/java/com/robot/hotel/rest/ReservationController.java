@@ -1,16 +1,23 @@
 package com.robot.hotel.rest;
 
 import com.robot.hotel.domain.Guest;
-import com.robot.hotel.domain.Room;
 import com.robot.hotel.domain.Reservation;
+import com.robot.hotel.dto.LifecycleRunDto;
+import com.robot.hotel.dto.ReservationBatchItem;
+import com.robot.hotel.dto.ReservationBatchResult;
 import com.robot.hotel.dto.ReservationDto;
 import com.robot.hotel.repository.GuestRepository;
-import com.robot.hotel.repository.RoomRepository;
+import com.robot.hotel.service.ReservationLifecycle;
 import com.robot.hotel.service.ReservationService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -21,18 +28,50 @@ import java.util.stream.Collectors;
 @RestController
 public class ReservationController {
     private final ReservationService reservationService;
+    private final ReservationLifecycle reservationLifecycle;
     private final GuestRepository guestRepository;
-    private final RoomRepository roomRepository;
+    private final NdjsonWriter ndjsonWriter;
+    private final CompactJsonWriter compactJsonWriter;
 
     @GetMapping("/reservations")
-    public ResponseEntity<List<ReservationDto>> findAll() {
-        return ResponseEntity.ok(reservationService.findAll());
+    public ResponseEntity<StreamingResponseBody> findAll() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(compactJsonWriter.reservations(reservationService::streamRows));
+    }
+
+    @GetMapping(value = "/reservations", params = "page")
+    public ResponseEntity<?> findAll(@RequestParam int page, @RequestParam(defaultValue = "20") int size) {
+        if (page < 0) {
+            return ResponseEntity.badRequest().body(PageLimit.NEGATIVE_PAGE);
+        }
+        if (!PageLimit.isValid(size)) {
+            return ResponseEntity.badRequest().body(PageLimit.OUT_OF_RANGE_SIZE);
+        }
+        return ResponseEntity.ok(reservationService.findAll(PageRequest.of(page, size, Sort.by("id"))));
+    }
+
+    @GetMapping(value = "/reservations", params = "limit")
+    public ResponseEntity<?> findAllAfter(@RequestParam(defaultValue = "0") Long afterId, @RequestParam int limit) {
+        if (!PageLimit.isValid(limit)) {
+            return ResponseEntity.badRequest().body(PageLimit.OUT_OF_RANGE);
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(compactJsonWriter.reservations(reservationService.findRowsAfter(afterId, limit)));
+    }
+
+    @GetMapping(value = "/reservations", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> reservationService.streamAll(ndjsonWriter.lines(out)));
     }
 
     @GetMapping("/reservations/{id}")
     public ResponseEntity<ReservationDto> findById(@PathVariable("id") Long id) {
-        return reservationService.findById(id)
-                .map(reservation -> ResponseEntity.ok(ReservationService.buildReservationDto(reservation)))
+        return reservationService.findDtoById(id)
+                .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -51,22 +90,30 @@ public class ReservationController {
             return ResponseEntity.badRequest().body("Invalid guest IDs");
         }
 
-        Room room = reservation.getRoom();
-        reservation.setGuests(guests);
-
-        Optional<Room> optionalRoom = roomRepository.findById(room.getId());
-        if (optionalRoom.isPresent()) {
-            Room foundRoom = optionalRoom.get();
-            reservation.setRoom(foundRoom);
-
-            reservationService.createReservation(reservation, guestIds, foundRoom.getId());
-        } else {
+        // The service loads the room under its row lock; loading it here first would leave a
+        // stale copy in the open-in-view persistence context for the locked query to return.
+        Long roomId = reservation.getRoom().getId();
+        try {
+            reservationService.createReservation(reservation, guestIds, roomId);
+        } catch (IllegalArgumentException e) {
             return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         }
 
         return ResponseEntity.status(HttpStatus.CREATED).build();
     }
 
+    @PostMapping("/reservations/batch")
+    public ResponseEntity<List<ReservationBatchResult>> importReservations(@RequestBody List<ReservationBatchItem> items) {
+        return ResponseEntity.ok(reservationService.importReservations(items));
+    }
+
+    @PostMapping("/reservations/lifecycle")
+    public ResponseEntity<LifecycleRunDto> runLifecycle(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(reservationLifecycle.run(date != null ? date : LocalDate.now()));
+    }
+
     @PostMapping("/reservations/{reservationId}/guests/{guestIds}")
     public ResponseEntity<String> addGuestsToReservation(@PathVariable("reservationId") Long reservationId, @PathVariable List<Long> guestIds) {
         List<Guest> guests = guestRepository.findAllById(guestIds);
@@ -2,71 +2,112 @@ package com.robot.hotel.rest;
 
 import com.robot.hotel.domain.Guest;
 import com.robot.hotel.domain.Room;
+import com.robot.hotel.domain.RoomType;
 import com.robot.hotel.dto.RoomDto;
+import com.robot.hotel.dto.RoomPatch;
 import com.robot.hotel.service.RoomService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @RequiredArgsConstructor
 @RestController
 public class RoomController {
     private final RoomService roomService;
+    private final NdjsonWriter ndjsonWriter;
+    private final CompactJsonWriter compactJsonWriter;
 
     @GetMapping("/rooms")
-    public ResponseEntity<List<RoomDto>> findAll() {
-        return ResponseEntity.ok(roomService.findAll());
+    public ResponseEntity<StreamingResponseBody> findAll() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(compactJsonWriter.rooms(roomService::streamRows));
+    }
+
+    @GetMapping(value = "/rooms", params = "limit")
+    public ResponseEntity<?> findAllAfter(@RequestParam(defaultValue = "0") Long afterId, @RequestParam int limit) {
+        if (!PageLimit.isValid(limit)) {
+            return ResponseEntity.badRequest().body(PageLimit.OUT_OF_RANGE);
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(compactJsonWriter.rooms(roomService.findRowsAfter(afterId, limit)));
+    }
+
+    @GetMapping(value = "/rooms", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> roomService.streamAll(ndjsonWriter.lines(out)));
     }
 
     @GetMapping("/rooms/{id}")
     public ResponseEntity<RoomDto> findById(@PathVariable Long id) {
-        return roomService.findById(id)
-                .map(room -> ResponseEntity.ok(RoomService.buildRoomDto(room)))
+        return roomService.findDtoById(id)
+                .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/rooms/number/{roomNumber}")
     public ResponseEntity<RoomDto> findByRoomNumber(@PathVariable int roomNumber) {
         return roomService.findByRoomNumber(roomNumber)
-                .map(room -> ResponseEntity.ok(RoomService.buildRoomDto(room)))
+                .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/rooms/available")
     public ResponseEntity<List<RoomDto>> getAvailableRooms() {
-        List<RoomDto> availableRoomDtos = roomService.getAvailableRooms().stream()
-                .map(RoomService::buildRoomDto)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(availableRoomDtos);
+        return ResponseEntity.ok(roomService.getAvailableRooms());
     }
 
     @GetMapping("/rooms/unavailable")
     public ResponseEntity<List<RoomDto>> getUnavailableRooms() {
-        List<RoomDto> unavailableRoomDtos = roomService.getUnavailableRooms().stream()
-                .map(RoomService::buildRoomDto)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(unavailableRoomDtos);
+        return ResponseEntity.ok(roomService.getUnavailableRooms());
     }
 
    @GetMapping("/rooms/findByType/{roomType}")
-   public ResponseEntity<List<RoomDto>> getRoomsByType(@PathVariable String roomType) {
-       List<RoomDto> roomDtos = roomService.findByRoomType(roomType).stream()
-               .map(RoomService::buildRoomDto)
-               .collect(Collectors.toList());
-       return ResponseEntity.ok(roomDtos);
+   public ResponseEntity<?> getRoomsByType(@PathVariable String roomType) {
+       try {
+           return ResponseEntity.ok(roomService.findByRoomType(RoomType.fromLabel(roomType)));
+       } catch (IllegalArgumentException e) {
+           return ResponseEntity.badRequest().body(e.getMessage());
+       }
    }
 
     @GetMapping("/rooms/findByMaxNumber/{maxNumberOfGuests}")
     public ResponseEntity<List<RoomDto>> getRoomsByMaxNumberOfGuests(@PathVariable int maxNumberOfGuests) {
-        List<RoomDto> roomDtos = roomService.findByMaxNumberOfGuests(maxNumberOfGuests).stream()
-                .map(RoomService::buildRoomDto)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(roomDtos);
+        return ResponseEntity.ok(roomService.findByMaxNumberOfGuests(maxNumberOfGuests));
+    }
+
+    @GetMapping("/rooms/search")
+    public ResponseEntity<?> findFreeRooms(@RequestParam(required = false) String roomType,
+                                           @RequestParam(defaultValue = "1") int minGuests,
+                                           @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkinDate,
+                                           @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkoutDate) {
+        try {
+            return ResponseEntity.ok(roomService.findFreeRooms(roomType == null ? null : RoomType.fromLabel(roomType),
+                    minGuests, checkinDate, checkoutDate));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/rooms/availability")
+    public ResponseEntity<?> findAvailabilityByNight(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                     @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(roomService.findAvailabilityByNight(from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @PostMapping("/rooms")
@@ -93,6 +134,21 @@ public class RoomController {
         return ResponseEntity.ok("Existing guests added to room successfully");
     }
 
+    @PatchMapping("/rooms")
+    public ResponseEntity<?> patchRooms(@RequestBody List<RoomPatch> patches) {
+        try {
+            return ResponseEntity.ok(roomService.patchRooms(patches));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PatchMapping("/rooms/{id}")
+    public ResponseEntity<?> patchRoom(@PathVariable Long id, @RequestBody RoomPatch patch) {
+        patch.setId(id);
+        return patchRooms(List.of(patch));
+    }
+
     @PutMapping("/rooms/{id}/roomNumber")
     public ResponseEntity<String> updateRoomNumber(@PathVariable Long id, @RequestBody int roomNumber) {
         roomService.updateRoomNumber(id, roomNumber);
@@ -102,7 +158,11 @@ public class RoomController {
 
     @PutMapping("/rooms/{id}/roomType")
     public ResponseEntity<String> updateRoomType(@PathVariable Long id, @RequestBody String roomType) {
-        roomService.updateRoomType(id, roomType);
+        try {
+            roomService.updateRoomType(id, RoomType.fromLabel(roomType.strip()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
 
         return ResponseEntity.ok("Room type updated successfully");
     }
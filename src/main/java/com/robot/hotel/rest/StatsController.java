@@ -0,0 +1,38 @@
+package com.robot.hotel.rest;
+
+import com.robot.hotel.domain.RoomType;
+import com.robot.hotel.service.OccupancyStatistics;
+import com.robot.hotel.service.RoomService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+@RequiredArgsConstructor
+@RestController
+public class StatsController {
+    private final RoomService roomService;
+    private final OccupancyStatistics occupancyStatistics;
+
+    @GetMapping("/stats")
+    public ResponseEntity<?> findOccupancyStats(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                @RequestParam(required = false) String roomType) {
+        try {
+            return ResponseEntity.ok(roomService.findOccupancyStats(from, to, roomType == null ? null : RoomType.fromLabel(roomType)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/stats/rebuild")
+    public ResponseEntity<Void> rebuild() {
+        occupancyStatistics.rebuild();
+        return ResponseEntity.noContent().build();
+    }
+}
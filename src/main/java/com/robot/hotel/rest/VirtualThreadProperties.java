@@ -0,0 +1,23 @@
+package com.robot.hotel.rest;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "hotel.virtual-threads")
+public class VirtualThreadProperties {
+    /**
+     * Runs Tomcat request handling and async MVC work on virtual threads. Needs Java 21.
+     */
+    private boolean enabled = false;
+    /**
+     * Requests allowed past the servlet filter at once; 0 means the Hikari maximum pool size.
+     */
+    private int maxConcurrentRequests = 0;
+    /**
+     * How long a request waits for a slot before it is rejected with 503.
+     */
+    private Duration queueTimeout = Duration.ofSeconds(5);
+}
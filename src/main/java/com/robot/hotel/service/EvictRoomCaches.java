@@ -0,0 +1,20 @@
+package com.robot.hotel.service;
+
+import org.springframework.cache.annotation.CacheEvict;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Drops every cached room lookup once the annotated method completes. Room changes
+ * are rare and may move a room between type, number and capacity keys, so the
+ * whole set is cleared rather than tracking individual entries.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@CacheEvict(cacheNames = {RoomService.ROOMS, RoomService.ROOMS_BY_NUMBER, RoomService.ROOMS_BY_TYPE, RoomService.ROOMS_BY_CAPACITY},
+        allEntries = true)
+public @interface EvictRoomCaches {
+}
@@ -0,0 +1,350 @@
+package com.robot.hotel.service;
+
+import com.robot.hotel.domain.Guest;
+import com.robot.hotel.repository.GuestRepository;
+import com.robot.hotel.repository.GuestRow;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-memory search over guest first names, last names and passport numbers.
+ * Each value is folded to lower case without accents and split into terms. A sorted map
+ * from term to guest ids answers prefix queries with one range scan; a trigram index over
+ * the distinct terms supplies candidates for typo-tolerant matching, which are filtered by
+ * the number of trigrams they share with the query and then checked with a bounded edit
+ * distance. Guests are kept as {@link GuestRow}s, so results never touch the database.
+ * <p>
+ * {@link #put} copies the guest into a row when called, but it and {@link #remove} reach
+ * the index from the commit callback of the caller's transaction, so a guest edit that
+ * rolls back is never searchable. A rebuild fills a fresh {@link Index} while searches
+ * keep reading the current one, and publishes it with a single volatile write. Edits
+ * committed meanwhile are applied to the current index and recorded, then replayed onto
+ * the new one just before the swap; each sets or removes a whole guest, so replaying one
+ * the rebuild already read is harmless.
+ */
+@Component
+public class GuestSearchIndex {
+    static final int MIN_FUZZY_LENGTH = 3;
+    private static final int TWO_EDITS_LENGTH = 6;
+    private static final int EDITED_TRIGRAMS = 4;
+    private static final Pattern ACCENTS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Comparator<GuestRow> BY_NAME = Comparator
+            .comparing(GuestRow::lastName, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+            .thenComparing(GuestRow::firstName, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+            .thenComparing(GuestRow::id);
+
+    private final GuestRepository guestRepository;
+    private final TransactionTemplate snapshotTransaction;
+
+    private final Object rebuildLock = new Object();
+
+    private volatile Index index = new Index();
+    /**
+     * Changes applied since the running rebuild started, or null when none runs. Guarded by this.
+     */
+    private List<Consumer<Index>> pending;
+
+    public GuestSearchIndex(GuestRepository guestRepository, PlatformTransactionManager transactionManager) {
+        this.guestRepository = guestRepository;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                pending = new ArrayList<>();
+            }
+            try {
+                Index rebuilt = new Index();
+                snapshotTransaction.executeWithoutResult(status -> {
+                    try (Stream<GuestRow> rows = guestRepository.streamRows()) {
+                        rows.forEach(rebuilt::put);
+                    }
+                });
+                synchronized (this) {
+                    pending.forEach(change -> change.accept(rebuilt));
+                    index = rebuilt;
+                }
+            } finally {
+                synchronized (this) {
+                    pending = null;
+                }
+            }
+        }
+    }
+
+    public void put(Guest guest) {
+        GuestRow row = new GuestRow(guest.getId(), guest.getFirstName(), guest.getLastName(),
+                guest.getDateOfBirth(), guest.getGender(), guest.getPassportNumber());
+        AfterCommit.run(() -> apply(current -> current.put(row)));
+    }
+
+    public void remove(Long guestId) {
+        AfterCommit.run(() -> apply(current -> current.remove(guestId)));
+    }
+
+    private synchronized void apply(Consumer<Index> change) {
+        change.accept(index);
+        if (pending != null) {
+            pending.add(change);
+        }
+    }
+
+    /**
+     * Guests matching every term of {@code query}, best matches first: an exact term scores
+     * 0, a prefix 1 and, with {@code fuzzy}, a term or prefix within one edit (two from six
+     * characters on) scores 1 plus the edits. Ties are ordered by last name, first name and id.
+     */
+    public List<GuestRow> search(String query, boolean fuzzy, int page, int size) {
+        if (page < 0 || size < 1) {
+            throw new IllegalArgumentException("Page must not be negative and size must be positive");
+        }
+        List<String> tokens = terms(query);
+        if (tokens.isEmpty()) {
+            throw new IllegalArgumentException("Query must contain a letter or digit");
+        }
+        Index current = index;
+        Map<Long, Integer> scores = null;
+        for (String token : tokens) {
+            Map<Long, Integer> matches = match(current, token, fuzzy);
+            if (scores == null) {
+                scores = matches;
+            } else {
+                Map<Long, Integer> both = new HashMap<>();
+                for (Map.Entry<Long, Integer> entry : scores.entrySet()) {
+                    Integer score = matches.get(entry.getKey());
+                    if (score != null) {
+                        both.put(entry.getKey(), entry.getValue() + score);
+                    }
+                }
+                scores = both;
+            }
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        List<Map.Entry<GuestRow, Integer>> ranked = new ArrayList<>(scores.size());
+        for (Map.Entry<Long, Integer> entry : scores.entrySet()) {
+            GuestRow guest = current.guestsById.get(entry.getKey());
+            if (guest != null) {
+                ranked.add(Map.entry(guest, entry.getValue()));
+            }
+        }
+        ranked.sort(Map.Entry.<GuestRow, Integer>comparingByValue()
+                .thenComparing(Map.Entry.<GuestRow, Integer>comparingByKey(BY_NAME)));
+        long from = (long) page * size;
+        if (from >= ranked.size()) {
+            return List.of();
+        }
+        return ranked.subList((int) from, (int) Math.min(from + size, ranked.size())).stream()
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private static Map<Long, Integer> match(Index index, String token, boolean fuzzy) {
+        Map<Long, Integer> best = new HashMap<>();
+        for (Map.Entry<String, Set<Long>> entry : index.guestsByTerm.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+            int score = entry.getKey().equals(token) ? 0 : 1;
+            entry.getValue().forEach(id -> best.merge(id, score, Math::min));
+        }
+        if (!fuzzy || token.length() < MIN_FUZZY_LENGTH) {
+            return best;
+        }
+        int maxEdits = maxEdits(token);
+        for (String term : fuzzyCandidates(index, token, maxEdits)) {
+            if (term.startsWith(token)) {
+                continue;
+            }
+            int edits = editDistance(token, term, maxEdits);
+            if (term.length() > token.length()) {
+                edits = Math.min(edits, editDistance(token, term.substring(0, token.length()), maxEdits));
+            }
+            if (edits <= maxEdits) {
+                int score = 1 + edits;
+                Set<Long> ids = index.guestsByTerm.get(term);
+                if (ids != null) {
+                    ids.forEach(id -> best.merge(id, score, Math::min));
+                }
+            }
+        }
+        return best;
+    }
+
+    private static int maxEdits(String token) {
+        return token.length() < TWO_EDITS_LENGTH ? 1 : 2;
+    }
+
+    Set<String> fuzzyCandidates(String token) {
+        return fuzzyCandidates(index, token, maxEdits(token));
+    }
+
+    /**
+     * Terms sharing enough of the token's distinct trigrams to be within {@code maxEdits}.
+     * An insertion, deletion or substitution changes at most three trigrams and a
+     * transposition four, so a term within k edits shares at least {@code grams - 4k} of
+     * them; a term matched through its prefix may also miss the token's closing gram. At
+     * least one shared gram is always required, and terms too short to be within reach are
+     * skipped.
+     */
+    private static Set<String> fuzzyCandidates(Index index, String token, int maxEdits) {
+        Set<String> grams = new LinkedHashSet<>(trigrams(token));
+        Map<String, Integer> shared = new HashMap<>();
+        for (String trigram : grams) {
+            for (String term : index.termsByTrigram.getOrDefault(trigram, Set.of())) {
+                shared.merge(term, 1, Integer::sum);
+            }
+        }
+        int minShared = grams.size() - EDITED_TRIGRAMS * maxEdits;
+        Set<String> candidates = new LinkedHashSet<>();
+        shared.forEach((term, count) -> {
+            if (term.length() < token.length() - maxEdits) {
+                return;
+            }
+            int required = term.length() > token.length() ? minShared - 1 : minShared;
+            if (count >= Math.max(required, 1)) {
+                candidates.add(term);
+            }
+        });
+        return candidates;
+    }
+
+    private static Set<String> terms(GuestRow guest) {
+        Set<String> terms = new LinkedHashSet<>();
+        terms.addAll(terms(guest.firstName()));
+        terms.addAll(terms(guest.lastName()));
+        terms.addAll(terms(guest.passportNumber()));
+        return terms;
+    }
+
+    static List<String> terms(String value) {
+        if (value == null) {
+            return List.of();
+        }
+        String folded = ACCENTS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        return Stream.of(SEPARATORS.split(folded))
+                .filter(term -> !term.isEmpty())
+                .toList();
+    }
+
+    /**
+     * Trigrams of the term padded with two leading and one trailing marker, so even a
+     * one-letter term has some and the first letters weigh more than the rest.
+     */
+    private static List<String> trigrams(String term) {
+        String padded = "$$" + term + "$";
+        List<String> trigrams = new ArrayList<>(padded.length() - 2);
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    /**
+     * Optimal string alignment distance (Levenshtein plus adjacent transpositions), or
+     * {@code max + 1} as soon as it is known to exceed {@code max}.
+     */
+    static int editDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int distance = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    distance = Math.min(distance, previous2[j - 2] + 1);
+                }
+                current[j] = distance;
+                rowMin = Math.min(rowMin, distance);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    /**
+     * The maps searched together. Searches read them concurrently; changes to the published
+     * index are made under the {@link GuestSearchIndex} lock, a new one only by the rebuild
+     * before it is published.
+     */
+    private static final class Index {
+        private final Map<Long, GuestRow> guestsById = new ConcurrentHashMap<>();
+        private final ConcurrentNavigableMap<String, Set<Long>> guestsByTerm = new ConcurrentSkipListMap<>();
+        private final Map<String, Set<String>> termsByTrigram = new ConcurrentHashMap<>();
+
+        void put(GuestRow guest) {
+            remove(guest.id());
+            guestsById.put(guest.id(), guest);
+            for (String term : terms(guest)) {
+                guestsByTerm.computeIfAbsent(term, key -> {
+                    for (String trigram : trigrams(key)) {
+                        termsByTrigram.computeIfAbsent(trigram, t -> ConcurrentHashMap.newKeySet()).add(key);
+                    }
+                    return ConcurrentHashMap.newKeySet();
+                }).add(guest.id());
+            }
+        }
+
+        void remove(Long guestId) {
+            GuestRow guest = guestsById.remove(guestId);
+            if (guest == null) {
+                return;
+            }
+            for (String term : terms(guest)) {
+                Set<Long> ids = guestsByTerm.get(term);
+                if (ids == null) {
+                    continue;
+                }
+                ids.remove(guestId);
+                if (ids.isEmpty()) {
+                    guestsByTerm.remove(term);
+                    for (String trigram : trigrams(term)) {
+                        Set<String> terms = termsByTrigram.get(trigram);
+                        if (terms != null) {
+                            terms.remove(term);
+                            if (terms.isEmpty()) {
+                                termsByTrigram.remove(trigram);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
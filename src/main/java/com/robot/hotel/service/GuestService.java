@@ -3,30 +3,69 @@ package com.robot.hotel.service;
 import com.robot.hotel.domain.Guest;
 import com.robot.hotel.domain.Room;
 import com.robot.hotel.dto.GuestDto;
+import com.robot.hotel.dto.GuestPatch;
+import com.robot.hotel.dto.PatchResult;
 import com.robot.hotel.repository.GuestRepository;
+import com.robot.hotel.repository.GuestRow;
 import com.robot.hotel.repository.RoomRepository;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 @RequiredArgsConstructor
 public class GuestService {
+    static final int ADULT_AGE = 18;
 
     private final GuestRepository guestRepository;
     private final RoomRepository roomRepository;
+    private final GuestSearchIndex guestSearchIndex;
+    private final ObjectProvider<GuestWriteBehind> writeBehind;
 
+    @ReadOnlyTransaction
     public List<GuestDto> findAll() {
-        return guestRepository.findAll().stream()
+        try (Stream<GuestRow> rows = guestRepository.streamRows()) {
+            return rows.map(GuestService::buildGuestDto).collect(Collectors.toList());
+        }
+}
+
+    @ReadOnlyTransaction
+    public List<GuestDto> findAllAfter(Long lastId, int limit) {
+        return findRowsAfter(lastId, limit).stream()
                 .map(GuestService::buildGuestDto)
                 .collect(Collectors.toList());
-}
+    }
+
+    @ReadOnlyTransaction
+    public void streamAll(Consumer<GuestDto> consumer) {
+        streamRows(row -> consumer.accept(buildGuestDto(row)));
+    }
+
+    @ReadOnlyTransaction
+    public void streamRows(Consumer<GuestRow> consumer) {
+        try (Stream<GuestRow> rows = guestRepository.streamRows()) {
+            rows.forEach(consumer);
+        }
+    }
+
+    @ReadOnlyTransaction
+    public List<GuestRow> findRowsAfter(Long lastId, int limit) {
+        return guestRepository.findRowsAfter(lastId, PageRequest.of(0, limit));
+    }
 
     public static GuestDto buildGuestDto(Guest guest) {
         var roomNumber = 0;
@@ -43,50 +82,177 @@ public class GuestService {
                 .build();
 }
 
+    public static GuestDto buildGuestDto(GuestRow guest) {
+        return GuestDto.builder()
+                .id(guest.id())
+                .firstName(guest.firstName())
+                .lastName(guest.lastName())
+                .dateOfBirth(guest.dateOfBirth())
+                .gender(guest.gender())
+                .passportNumber(guest.passportNumber())
+                .build();
+    }
+
     public Optional<Guest> findById(Long id) {
         return guestRepository.findById(id);
     }
 
-    public List<Guest> findGuestsByIds(List<Long> guestIds) {
-        return guestRepository.findAllById(guestIds);
+    @ReadOnlyTransaction
+    public Optional<GuestDto> findDtoById(Long id) {
+        return guestRepository.findRowById(id)
+                .map(GuestService::buildGuestDto);
+    }
+
+    @ReadOnlyTransaction
+    public List<GuestDto> findGuestsByIds(List<Long> guestIds) {
+        return guestRepository.findRowsByIdInOrderById(guestIds).stream()
+                .map(GuestService::buildGuestDto)
+                .collect(Collectors.toList());
+    }
+
+    @ReadOnlyTransaction
+    public Optional<GuestDto> findByLastName(String lastName) {
+        return guestRepository.findRowByLastName(lastName)
+                .map(GuestService::buildGuestDto);
+    }
+
+    @ReadOnlyTransaction
+    public Optional<GuestDto> findByPassportNumber(String passportNumber) {
+        return guestRepository.findRowByPassportNumber(passportNumber)
+                .map(GuestService::buildGuestDto);
+    }
+
+    @ReadOnlyTransaction
+    public List<GuestDto> findBornBetween(LocalDate from, LocalDate to, int page, int size) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("End date must not be before start date");
+        }
+        return guestRepository.findRowsByDateOfBirthBetweenOrderByDateOfBirthAscIdAsc(from, to, PageRequest.of(page, size)).stream()
+                .map(GuestService::buildGuestDto)
+                .collect(Collectors.toList());
     }
 
-    public Optional<Guest> findByLastName(String lastName) {
-        return guestRepository.findByLastName(lastName);
+    /**
+     * Guests of the reservation who are not yet {@value #ADULT_AGE} on the given day.
+     */
+    @ReadOnlyTransaction
+    public List<GuestDto> findMinors(Long reservationId, LocalDate day) {
+        return guestRepository.findRowsByReservationIdBornAfter(reservationId, day.minusYears(ADULT_AGE)).stream()
+                .map(GuestService::buildGuestDto)
+                .collect(Collectors.toList());
     }
 
-    public Optional<Guest> findByPassportNumber(String passportNumber) {
-        return guestRepository.findByPassportNumber(passportNumber);
+    /**
+     * Guests whose names or passport number match every term of the query, by prefix and,
+     * with {@code fuzzy}, despite a typo; see {@link GuestSearchIndex#search}.
+     */
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public List<GuestDto> search(String query, boolean fuzzy, int page, int size) {
+        return guestSearchIndex.search(query, fuzzy, page, size).stream()
+                .map(GuestService::buildGuestDto)
+                .collect(Collectors.toList());
     }
 
     public void saveGuest(Guest guest) {
         guestRepository.save(guest);
+        guestSearchIndex.put(guest);
     }
 
    public void updateFirstName(Long guestId, String firstName) {
-        Guest guest = guestRepository.findById(guestId)
-                .orElseThrow(() -> new EntityNotFoundException("Guest not found"));
+        Guest guest = findWithQueued(guestId);
         guest.setFirstName(firstName);
 
         guestRepository.save(guest);
+        guestSearchIndex.put(guest);
    }
 
     public void updateLastName(Long guestId, String newLastName) {
-        Guest guest = guestRepository.findById(guestId)
-                .orElseThrow(() -> new EntityNotFoundException("Guest not found"));
+        Guest guest = findWithQueued(guestId);
         guest.setLastName(newLastName);
 
         guestRepository.save(guest);
+        guestSearchIndex.put(guest);
     }
 
    public void updatePassportNumber(Long guestId, String passportNumber) {
-       Guest guest = guestRepository.findById(guestId)
-               .orElseThrow(() -> new EntityNotFoundException("Guest not found"));
+       Guest guest = findWithQueued(guestId);
        guest.setPassportNumber(passportNumber);
 
        guestRepository.save(guest);
+       guestSearchIndex.put(guest);
    }
 
+    /**
+     * Applies the non-null fields of each patch. Patches for the same guest are merged first,
+     * and all guests are loaded in one query and flushed together, so each guest costs one
+     * batched UPDATE however many of its fields change. A patch still queued in the
+     * {@link GuestWriteBehind} for one of the guests is taken and applied underneath.
+     */
+    public List<PatchResult> patchGuests(List<GuestPatch> patches) {
+        Map<Long, GuestPatch> merged = Patches.coalesce(patches, GuestPatch::getId, GuestService::merge);
+        merged.replaceAll((id, patch) -> writeBehind.getObject().take(id)
+                .map(queued -> merge(queued, patch))
+                .orElse(patch));
+        return applyPatches(merged);
+    }
+
+    /**
+     * Writes patches drained from the {@link GuestWriteBehind}, which must not take from it.
+     */
+    List<PatchResult> patchQueued(List<GuestPatch> patches) {
+        return applyPatches(Patches.coalesce(patches, GuestPatch::getId, GuestService::merge));
+    }
+
+    private List<PatchResult> applyPatches(Map<Long, GuestPatch> merged) {
+        Map<Long, Guest> guests = guestRepository.findAllById(merged.keySet()).stream()
+                .collect(Collectors.toMap(Guest::getId, Function.identity()));
+
+        List<PatchResult> results = new ArrayList<>(merged.size());
+        for (GuestPatch patch : merged.values()) {
+            Guest guest = guests.get(patch.getId());
+            if (guest == null) {
+                results.add(PatchResult.builder().id(patch.getId()).updated(false).error("Guest not found").build());
+                continue;
+            }
+            applyPatch(guest, patch);
+            guestSearchIndex.put(guest);
+            results.add(PatchResult.builder().id(patch.getId()).updated(true).build());
+        }
+        return results;
+    }
+
+    static GuestPatch merge(GuestPatch earlier, GuestPatch later) {
+        return GuestPatch.builder()
+                .id(earlier.getId())
+                .firstName(Patches.latest(earlier.getFirstName(), later.getFirstName()))
+                .lastName(Patches.latest(earlier.getLastName(), later.getLastName()))
+                .dateOfBirth(Patches.latest(earlier.getDateOfBirth(), later.getDateOfBirth()))
+                .gender(Patches.latest(earlier.getGender(), later.getGender()))
+                .passportNumber(Patches.latest(earlier.getPassportNumber(), later.getPassportNumber()))
+                .build();
+    }
+
+    /**
+     * Loads the guest with its queued deferred patch applied, so the patch cannot overwrite a
+     * synchronous write later. The patch is taken before the guest is read, in case a flush is
+     * still writing it.
+     */
+    private Guest findWithQueued(Long guestId) {
+        Optional<GuestPatch> queued = writeBehind.getObject().take(guestId);
+        Guest guest = guestRepository.findById(guestId)
+                .orElseThrow(() -> new EntityNotFoundException("Guest not found"));
+        queued.ifPresent(patch -> applyPatch(guest, patch));
+        return guest;
+    }
+
+    private static void applyPatch(Guest guest, GuestPatch patch) {
+        guest.setFirstName(Patches.latest(guest.getFirstName(), patch.getFirstName()));
+        guest.setLastName(Patches.latest(guest.getLastName(), patch.getLastName()));
+        guest.setDateOfBirth(Patches.latest(guest.getDateOfBirth(), patch.getDateOfBirth()));
+        guest.setGender(Patches.latest(guest.getGender(), patch.getGender()));
+        guest.setPassportNumber(Patches.latest(guest.getPassportNumber(), patch.getPassportNumber()));
+    }
+
    public void addRoom(Long guestId, Long roomId) {
         Guest guest = guestRepository.findById(guestId)
                 .orElseThrow(() -> new EntityNotFoundException("Guest not found"));
@@ -98,9 +264,11 @@ public class GuestService {
    }
 
    public void deleteGuest(Long id) {
+       writeBehind.getObject().take(id);
        Guest guestToDelete = guestRepository.findById(id)
                .orElseThrow(() -> new EntityNotFoundException("User not found"));
        guestRepository.delete(guestToDelete);
+       guestSearchIndex.remove(id);
    }
 
 }
@@ -0,0 +1,201 @@
+package com.robot.hotel.service;
+
+import com.robot.hotel.dto.GuestPatch;
+import com.robot.hotel.dto.PatchResult;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind buffer for guest profile edits that need not be visible at once. Pending
+ * patches are kept per guest, merged with any earlier one for the same guest, and a
+ * scheduled flush applies them in batches through {@link GuestService#patchQueued}.
+ * Synchronous writes to a guest first {@link #take take} its pending patch, so an older
+ * deferred edit can never land on top of a newer synchronous one.
+ * <p>
+ * The buffer is bounded: an offer that needs more room than is free waits up to the offer
+ * timeout and is then rejected, pushing back on callers instead of growing without limit.
+ * On shutdown it stops accepting patches and flushes everything still pending before the
+ * datasource closes. Patches live in memory only, so a crash loses the ones not yet flushed.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(GuestWriteBehindProperties.class)
+public class GuestWriteBehind {
+    private final GuestService guestService;
+    private final GuestWriteBehindProperties properties;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Condition written = lock.newCondition();
+    private final Map<Long, GuestPatch> pending = new LinkedHashMap<>();
+    private final Set<Long> inFlight = new HashSet<>();
+    private boolean closed;
+
+    public GuestWriteBehind(GuestService guestService, GuestWriteBehindProperties properties) {
+        this.guestService = guestService;
+        this.properties = properties;
+    }
+
+    /**
+     * Queues all patches or none of them.
+     *
+     * @throws RejectedExecutionException if the buffer stays full for the offer timeout or is shut down
+     */
+    public void offer(List<GuestPatch> patches) {
+        Map<Long, GuestPatch> merged = Patches.coalesce(patches, GuestPatch::getId, GuestService::merge);
+        if (merged.size() > properties.getCapacity()) {
+            throw new IllegalArgumentException("At most " + properties.getCapacity() + " guests can be queued at once");
+        }
+        long remainingNanos = properties.getOfferTimeout().toNanos();
+        lock.lock();
+        try {
+            while (!closed && pending.size() + newGuests(merged) > properties.getCapacity()) {
+                if (remainingNanos <= 0) {
+                    throw new RejectedExecutionException("Guest update buffer is full");
+                }
+                remainingNanos = notFull.awaitNanos(remainingNanos);
+            }
+            if (closed) {
+                throw new RejectedExecutionException("Guest update buffer is shut down");
+            }
+            merged.forEach((id, patch) -> pending.merge(id, patch, GuestService::merge));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for the guest update buffer", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int pendingGuests() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes and returns the patch pending for the guest, for a synchronous write to apply
+     * before its own changes. If a flush is writing the guest right now, waits for it to
+     * finish, so the synchronous write always commits last.
+     */
+    public Optional<GuestPatch> take(Long guestId) {
+        lock.lock();
+        try {
+            while (inFlight.contains(guestId)) {
+                written.awaitUninterruptibly();
+            }
+            GuestPatch patch = pending.remove(guestId);
+            if (patch != null) {
+                notFull.signalAll();
+            }
+            return Optional.ofNullable(patch);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Applies everything pending, one transaction per batch. Flushes never overlap, so two
+     * patches for the same guest are written in the order they were merged.
+     */
+    @Scheduled(fixedDelayString = "${hotel.write-behind.flush-interval:PT1S}")
+    public synchronized void flush() {
+        for (List<GuestPatch> batch = drain(); !batch.isEmpty(); batch = drain()) {
+            try {
+                write(batch);
+            } finally {
+                written(batch);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        flush();
+    }
+
+    private long newGuests(Map<Long, GuestPatch> merged) {
+        return merged.keySet().stream().filter(id -> !pending.containsKey(id)).count();
+    }
+
+    private List<GuestPatch> drain() {
+        lock.lock();
+        try {
+            List<GuestPatch> batch = new ArrayList<>(Math.min(pending.size(), properties.getBatchSize()));
+            Iterator<GuestPatch> iterator = pending.values().iterator();
+            while (iterator.hasNext() && batch.size() < properties.getBatchSize()) {
+                GuestPatch patch = iterator.next();
+                batch.add(patch);
+                inFlight.add(patch.getId());
+                iterator.remove();
+            }
+            if (!batch.isEmpty()) {
+                notFull.signalAll();
+            }
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void written(List<GuestPatch> batch) {
+        lock.lock();
+        try {
+            batch.forEach(patch -> inFlight.remove(patch.getId()));
+            written.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * A batch that fails as a whole, for example on a duplicate passport number, is retried
+     * one guest at a time so a single bad patch does not drop the others.
+     */
+    private void write(List<GuestPatch> batch) {
+        try {
+            logMissing(guestService.patchQueued(batch));
+        } catch (RuntimeException batchFailure) {
+            log.warn("Writing {} queued guest updates failed, retrying one at a time", batch.size(), batchFailure);
+            for (GuestPatch patch : batch) {
+                try {
+                    logMissing(guestService.patchQueued(List.of(patch)));
+                } catch (RuntimeException e) {
+                    log.error("Dropping queued update for guest {}", patch.getId(), e);
+                }
+            }
+        }
+    }
+
+    private static void logMissing(List<PatchResult> results) {
+        results.stream()
+                .filter(result -> !result.isUpdated())
+                .forEach(result -> log.warn("Dropping queued update for guest {}: {}", result.getId(), result.getError()));
+    }
+}
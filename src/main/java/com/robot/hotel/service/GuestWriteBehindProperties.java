@@ -0,0 +1,23 @@
+package com.robot.hotel.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "hotel.write-behind")
+public class GuestWriteBehindProperties {
+    /**
+     * Guests with pending patches the buffer holds before offers have to wait.
+     */
+    private int capacity = 10_000;
+    /**
+     * Guests patched per transaction when the buffer is flushed.
+     */
+    private int batchSize = 500;
+    /**
+     * How long an offer waits for room in a full buffer before it is rejected.
+     */
+    private Duration offerTimeout = Duration.ofMillis(500);
+}
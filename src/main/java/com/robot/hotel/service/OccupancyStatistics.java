@@ -0,0 +1,383 @@
+package com.robot.hotel.service;
+
+import com.robot.hotel.domain.Reservation;
+import com.robot.hotel.domain.RoomType;
+import com.robot.hotel.repository.ReservationRepository;
+import com.robot.hotel.repository.StayRevenue;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Running totals of rooms sold, revenue and guests per night and room type.
+ * Every night of a stay adds one room sold, the room's nightly price and the stay's
+ * guest count to that night's totals for the room's type. Reservation changes are applied
+ * as deltas after commit, so reading a date range costs one lookup per night rather than
+ * a scan of the reservations.
+ * <p>
+ * Revenue uses the room's current price, as in {@link #rebuild()}, which recomputes the
+ * totals from the database with a fork-join pass. An edit of a room's price or type moves
+ * all of the room's stays to the new values through {@link #rekeyRoom}, so a later
+ * cancellation subtracts what the totals hold.
+ * <p>
+ * Deltas are not idempotent, so the rebuild must know which commits its snapshot saw.
+ * A writer holds the read side of {@code rebuildLock} from just before its commit until its
+ * delta is applied, and the rebuild takes the write side only while it opens its query.
+ * Every delta is therefore either in the snapshot or recorded afterwards in
+ * {@code pending}, and the recorded ones are replayed onto the new totals at the swap.
+ * <p>
+ * Each night's totals are an {@link EnumMap} by room type that is never modified once
+ * published; a change replaces it with an updated copy, which for a handful of room types
+ * is cheaper than a concurrent map per night.
+ */
+@Component
+public class OccupancyStatistics {
+    private static final int REBUILD_SLICE = 16_384;
+
+    private final ReservationRepository reservationRepository;
+    private final TransactionTemplate snapshotTransaction;
+
+    private final ReentrantReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    private volatile ConcurrentNavigableMap<LocalDate, Map<RoomType, Totals>> totalsByNight = new ConcurrentSkipListMap<>();
+    /**
+     * Deltas applied since the running rebuild opened its query, or null when none runs.
+     */
+    private volatile Queue<Delta> pending;
+
+    public OccupancyStatistics(ReservationRepository reservationRepository, PlatformTransactionManager transactionManager) {
+        this.reservationRepository = reservationRepository;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Streams every stay into flat arrays and tallies slices of them in parallel; each
+     * slice fills its own map, and the maps are merged as the fork-join tasks complete.
+     */
+    @PostConstruct
+    public synchronized void rebuild() {
+        try {
+            Stays stays = snapshotTransaction.execute(status -> {
+                Stays.Builder builder = new Stays.Builder();
+                try (Stream<StayRevenue> rows = openSnapshot()) {
+                    rows.forEach(builder::add);
+                }
+                return builder.build();
+            });
+            Map<Long, Map<RoomType, long[]>> tally = ForkJoinPool.commonPool().invoke(new Tally(stays, 0, stays.size));
+
+            ConcurrentNavigableMap<LocalDate, Map<RoomType, Totals>> rebuilt = new ConcurrentSkipListMap<>();
+            tally.forEach((night, byType) -> {
+                Map<RoomType, Totals> totals = new EnumMap<>(RoomType.class);
+                byType.forEach((roomType, sums) -> totals.put(roomType, new Totals(sums[0], sums[1], sums[2])));
+                rebuilt.put(LocalDate.ofEpochDay(night), totals);
+            });
+
+            rebuildLock.writeLock().lock();
+            try {
+                pending.forEach(delta -> apply(rebuilt, delta));
+                totalsByNight = rebuilt;
+            } finally {
+                rebuildLock.writeLock().unlock();
+            }
+        } finally {
+            pending = null;
+        }
+    }
+
+    /**
+     * Runs the stays query once no commit is between its database commit and its delta,
+     * and starts recording deltas, so the result holds exactly the deltas not recorded.
+     * H2 computes the whole result when the query executes.
+     */
+    private Stream<StayRevenue> openSnapshot() {
+        rebuildLock.writeLock().lock();
+        try {
+            Stream<StayRevenue> rows = reservationRepository.streamStayRevenue();
+            pending = new ConcurrentLinkedQueue<>();
+            return rows;
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Totals for every night in [from, to) that has any, keyed by room type. The maps
+     * are shared snapshots and must not be modified.
+     */
+    public NavigableMap<LocalDate, Map<RoomType, Totals>> between(LocalDate from, LocalDate to) {
+        return totalsByNight.subMap(from, true, to, false);
+    }
+
+    public void add(Reservation reservation) {
+        afterCommit(List.of(new Delta(Stay.of(reservation), 1)));
+    }
+
+    public void remove(Reservation reservation) {
+        afterCommit(List.of(new Delta(Stay.of(reservation), -1)));
+    }
+
+    /**
+     * Swaps a stay captured with {@link Stay#of} before a change for the reservation's current state.
+     */
+    public void replace(Stay before, Reservation reservation) {
+        afterCommit(List.of(new Delta(before, -1), new Delta(Stay.of(reservation), 1)));
+    }
+
+    /**
+     * Moves every stay of a room from the type and price it is counted with to new ones.
+     * The caller holds the room's row lock, so no booking of the room commits in between.
+     */
+    public void rekeyRoom(Long roomId, RoomType oldType, double oldPrice, RoomType newType, double newPrice) {
+        if (oldType == newType && cents(oldPrice) == cents(newPrice)) {
+            return;
+        }
+        List<Delta> deltas = new ArrayList<>();
+        for (StayRevenue stay : reservationRepository.findStayRevenueByRoomId(roomId)) {
+            if (stay.checkinDate() == null || stay.checkoutDate() == null) {
+                continue;
+            }
+            deltas.add(new Delta(new Stay(oldType, cents(oldPrice), stay.guests(), stay.checkinDate(), stay.checkoutDate()), -1));
+            deltas.add(new Delta(new Stay(newType, cents(newPrice), stay.guests(), stay.checkinDate(), stay.checkoutDate()), 1));
+        }
+        if (!deltas.isEmpty()) {
+            afterCommit(deltas);
+        }
+    }
+
+    /**
+     * Like {@link AfterCommit}, but also holds off a rebuild's snapshot from just before
+     * the commit until the deltas are applied.
+     */
+    private void afterCommit(List<Delta> deltas) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            rebuildLock.readLock().lock();
+            try {
+                deltas.forEach(this::apply);
+            } finally {
+                rebuildLock.readLock().unlock();
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean locked;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                rebuildLock.readLock().lock();
+                locked = true;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (!locked) {
+                    return;
+                }
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        deltas.forEach(OccupancyStatistics.this::apply);
+                    }
+                } finally {
+                    rebuildLock.readLock().unlock();
+                }
+            }
+        });
+    }
+
+    private void apply(Delta delta) {
+        apply(totalsByNight, delta);
+        Queue<Delta> recording = pending;
+        if (recording != null) {
+            recording.add(delta);
+        }
+    }
+
+    private static void apply(ConcurrentNavigableMap<LocalDate, Map<RoomType, Totals>> nights, Delta delta) {
+        Stay stay = delta.stay();
+        if (stay == null) {
+            return;
+        }
+        int sign = delta.sign();
+        Totals totals = new Totals(sign, sign * stay.revenueCents(), sign * stay.guests());
+        for (LocalDate night = stay.checkinDate(); night.isBefore(stay.checkoutDate()); night = night.plusDays(1)) {
+            nights.compute(night, (n, byType) -> withDelta(byType, stay.roomType(), totals));
+        }
+    }
+
+    /**
+     * A copy of the night's totals with the delta applied, or null once nothing is left.
+     * It has no side effects, as {@code compute} may call it more than once.
+     */
+    private static Map<RoomType, Totals> withDelta(Map<RoomType, Totals> byType, RoomType roomType, Totals delta) {
+        EnumMap<RoomType, Totals> updated = byType == null ? new EnumMap<>(RoomType.class) : new EnumMap<>(byType);
+        updated.merge(roomType, delta, OccupancyStatistics::sumOrNull);
+        return updated.isEmpty() ? null : updated;
+    }
+
+    /**
+     * Drops totals that cancel out, so a night whose stays were all removed reads as empty.
+     */
+    private static Totals sumOrNull(Totals current, Totals delta) {
+        Totals sum = new Totals(current.roomsSold() + delta.roomsSold(),
+                current.revenueCents() + delta.revenueCents(), current.guests() + delta.guests());
+        return sum.roomsSold() == 0 && sum.revenueCents() == 0 && sum.guests() == 0 ? null : sum;
+    }
+
+    static long cents(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    /**
+     * Revenue is kept in cents so that adding and later subtracting a stay cancels exactly.
+     */
+    public record Totals(long roomsSold, long revenueCents, long guests) {
+    }
+
+    private record Delta(Stay stay, int sign) {
+    }
+
+    /**
+     * The part of a reservation the statistics depend on, captured when a change is made
+     * because the entity may be modified again before the transaction commits.
+     */
+    public record Stay(RoomType roomType, long revenueCents, long guests, LocalDate checkinDate, LocalDate checkoutDate) {
+        public static Stay of(Reservation reservation) {
+            if (reservation.getRoom() == null || reservation.getCheckinDate() == null || reservation.getCheckoutDate() == null) {
+                return null;
+            }
+            return new Stay(reservation.getRoom().getRoomType(), cents(reservation.getRoom().getPricePerNight()),
+                    reservation.getGuests() == null ? 0 : reservation.getGuests().size(),
+                    reservation.getCheckinDate(), reservation.getCheckoutDate());
+        }
+    }
+
+    /**
+     * All stays as parallel arrays, so the rebuild holds a few longs per reservation
+     * instead of one projection object each.
+     */
+    private static final class Stays {
+        private final RoomType[] roomTypes;
+        private final long[] revenueCents;
+        private final int[] guests;
+        private final long[] checkins;
+        private final long[] checkouts;
+        private final int size;
+
+        private Stays(RoomType[] roomTypes, long[] revenueCents, int[] guests, long[] checkins, long[] checkouts, int size) {
+            this.roomTypes = roomTypes;
+            this.revenueCents = revenueCents;
+            this.guests = guests;
+            this.checkins = checkins;
+            this.checkouts = checkouts;
+            this.size = size;
+        }
+
+        private static final class Builder {
+            private RoomType[] types = new RoomType[1024];
+            private long[] revenueCents = new long[1024];
+            private int[] guests = new int[1024];
+            private long[] checkins = new long[1024];
+            private long[] checkouts = new long[1024];
+            private int size;
+
+            void add(StayRevenue stay) {
+                if (stay.checkinDate() == null || stay.checkoutDate() == null) {
+                    return;
+                }
+                if (size == types.length) {
+                    types = Arrays.copyOf(types, size * 2);
+                    revenueCents = Arrays.copyOf(revenueCents, size * 2);
+                    guests = Arrays.copyOf(guests, size * 2);
+                    checkins = Arrays.copyOf(checkins, size * 2);
+                    checkouts = Arrays.copyOf(checkouts, size * 2);
+                }
+                types[size] = stay.roomType();
+                revenueCents[size] = cents(stay.pricePerNight());
+                guests[size] = stay.guests();
+                checkins[size] = stay.checkinDate().toEpochDay();
+                checkouts[size] = stay.checkoutDate().toEpochDay();
+                size++;
+            }
+
+            Stays build() {
+                return new Stays(types, revenueCents, guests, checkins, checkouts, size);
+            }
+        }
+    }
+
+    /**
+     * Sums stays [from, to) into rooms sold, revenue and guests per epoch day and room type.
+     */
+    private static final class Tally extends RecursiveTask<Map<Long, Map<RoomType, long[]>>> {
+        private final Stays stays;
+        private final int from;
+        private final int to;
+
+        private Tally(Stays stays, int from, int to) {
+            this.stays = stays;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Map<Long, Map<RoomType, long[]>> compute() {
+            if (to - from <= REBUILD_SLICE) {
+                return tally();
+            }
+            int mid = (from + to) >>> 1;
+            Tally left = new Tally(stays, from, mid);
+            left.fork();
+            Map<Long, Map<RoomType, long[]>> right = new Tally(stays, mid, to).compute();
+            return merge(left.join(), right);
+        }
+
+        private Map<Long, Map<RoomType, long[]>> tally() {
+            Map<Long, Map<RoomType, long[]>> totals = new HashMap<>();
+            for (int i = from; i < to; i++) {
+                for (long night = stays.checkins[i]; night < stays.checkouts[i]; night++) {
+                    long[] sums = totals.computeIfAbsent(night, n -> new EnumMap<>(RoomType.class))
+                            .computeIfAbsent(stays.roomTypes[i], type -> new long[3]);
+                    sums[0]++;
+                    sums[1] += stays.revenueCents[i];
+                    sums[2] += stays.guests[i];
+                }
+            }
+            return totals;
+        }
+
+        private static Map<Long, Map<RoomType, long[]>> merge(Map<Long, Map<RoomType, long[]>> target, Map<Long, Map<RoomType, long[]>> source) {
+            if (target.size() < source.size()) {
+                return merge(source, target);
+            }
+            source.forEach((night, byType) -> {
+                Map<RoomType, long[]> into = target.computeIfAbsent(night, n -> new EnumMap<>(RoomType.class));
+                byType.forEach((roomType, sums) -> into.merge(roomType, sums, (a, b) -> {
+                    a[0] += b[0];
+                    a[1] += b[1];
+                    a[2] += b[2];
+                    return a;
+                }));
+            });
+            return target;
+        }
+    }
+}
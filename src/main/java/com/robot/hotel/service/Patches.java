@@ -0,0 +1,32 @@
+package com.robot.hotel.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+/**
+ * Folds partial updates of the same entity into one, so a burst of field edits costs a
+ * single UPDATE. A field set by a later patch wins; a null field keeps the earlier value.
+ */
+final class Patches {
+    private Patches() {
+    }
+
+    static <P> Map<Long, P> coalesce(List<P> patches, Function<P, Long> id, BinaryOperator<P> merge) {
+        Map<Long, P> merged = new LinkedHashMap<>();
+        for (P patch : patches) {
+            Long key = id.apply(patch);
+            if (key == null) {
+                throw new IllegalArgumentException("Every patch needs an id");
+            }
+            merged.merge(key, patch, merge);
+        }
+        return merged;
+    }
+
+    static <T> T latest(T earlier, T later) {
+        return later != null ? later : earlier;
+    }
+}
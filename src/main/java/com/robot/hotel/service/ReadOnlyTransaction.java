@@ -0,0 +1,21 @@
+package com.robot.hotel.service;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs the annotated read in a read-only transaction. Hibernate then opens the session
+ * with flush mode MANUAL and read-only entities, so nothing is snapshotted for dirty
+ * checking and no query triggers an automatic flush. With {@code hotel.read-replica.enabled}
+ * the transaction also runs on the replica pool. Called from a read-write transaction, the
+ * method joins it unchanged, primary connection included.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Transactional(readOnly = true)
+public @interface ReadOnlyTransaction {
+}
@@ -0,0 +1,113 @@
+package com.robot.hotel.service;
+
+import com.robot.hotel.domain.ReservationStatus;
+import com.robot.hotel.dto.LifecycleRunDto;
+import com.robot.hotel.repository.ReservationRepository;
+import com.robot.hotel.repository.RoomRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static com.robot.hotel.domain.ReservationStatus.CANCELLED;
+import static com.robot.hotel.domain.ReservationStatus.CHECKED_IN;
+import static com.robot.hotel.domain.ReservationStatus.COMPLETED;
+
+/**
+ * Moves reservations through their stay and keeps {@code Room.isAvailable} in line with it:
+ * a reservation whose stay covers the day is checked in, one whose stay has ended is
+ * completed, and a room is available exactly when it has no booked night on that day.
+ * <p>
+ * Every step is a bulk UPDATE over a window of ids, one short transaction per window, so
+ * no entity is loaded and no lock is held on more than a window of rows. Runs are idempotent:
+ * a window that failed is simply picked up again by the next run.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(ReservationLifecycleProperties.class)
+public class ReservationLifecycle {
+    private static final Set<ReservationStatus> NOT_CHECKED_IN = EnumSet.of(CHECKED_IN, COMPLETED, CANCELLED);
+    private static final Set<ReservationStatus> NOT_COMPLETED = EnumSet.of(COMPLETED, CANCELLED);
+
+    private final ReservationRepository reservationRepository;
+    private final RoomRepository roomRepository;
+    private final ReservationLifecycleProperties properties;
+    private final TransactionTemplate transaction;
+
+    public ReservationLifecycle(ReservationRepository reservationRepository, RoomRepository roomRepository,
+                                ReservationLifecycleProperties properties, PlatformTransactionManager transactionManager) {
+        this.reservationRepository = reservationRepository;
+        this.roomRepository = roomRepository;
+        this.properties = properties;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Runs shortly after midnight, once the new day has started.
+     */
+    @EvictRoomCaches
+    @Scheduled(cron = "${hotel.lifecycle.cron:0 5 0 * * *}")
+    public void run() {
+        LifecycleRunDto result = run(LocalDate.now());
+        log.info("Reservation lifecycle for {}: {} checked in, {} completed, {} rooms occupied, {} rooms freed",
+                result.getDay(), result.getCheckedIn(), result.getCompleted(), result.getRoomsOccupied(), result.getRoomsFreed());
+    }
+
+    @EvictRoomCaches
+    public LifecycleRunDto run(LocalDate day) {
+        long[] reservations = inChunks(reservationRepository::findMinId, reservationRepository::findMaxId,
+                (fromId, toId) -> reservationRepository.completeDue(fromId, toId, day, COMPLETED, NOT_COMPLETED),
+                (fromId, toId) -> reservationRepository.checkInDue(fromId, toId, day, CHECKED_IN, NOT_CHECKED_IN));
+        long[] rooms = inChunks(roomRepository::findMinId, roomRepository::findMaxId,
+                (fromId, toId) -> roomRepository.markOccupied(fromId, toId, day),
+                (fromId, toId) -> roomRepository.markFree(fromId, toId, day));
+        return LifecycleRunDto.builder()
+                .day(day)
+                .completed(reservations[0])
+                .checkedIn(reservations[1])
+                .roomsOccupied(rooms[0])
+                .roomsFreed(rooms[1])
+                .build();
+    }
+
+    /**
+     * Applies the updates to consecutive id windows of the chunk size, all updates of a
+     * window in one transaction, and returns the rows each update changed in total.
+     */
+    private long[] inChunks(Supplier<Long> minId, Supplier<Long> maxId, RangeUpdate... updates) {
+        long[] changed = new long[updates.length];
+        Long first = minId.get();
+        Long last = maxId.get();
+        if (first == null || last == null) {
+            return changed;
+        }
+        int chunkSize = properties.getChunkSize();
+        for (long start = first; start <= last; start += chunkSize) {
+            long fromId = start;
+            long toId = Math.min(start + chunkSize - 1, last);
+            int[] counts = transaction.execute(status -> {
+                int[] window = new int[updates.length];
+                for (int i = 0; i < updates.length; i++) {
+                    window[i] = updates[i].apply(fromId, toId);
+                }
+                return window;
+            });
+            for (int i = 0; i < updates.length; i++) {
+                changed[i] += counts[i];
+            }
+        }
+        return changed;
+    }
+
+    @FunctionalInterface
+    private interface RangeUpdate {
+        int apply(Long fromId, Long toId);
+    }
+}
@@ -0,0 +1,13 @@
+package com.robot.hotel.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "hotel.lifecycle")
+public class ReservationLifecycleProperties {
+    /**
+     * Width of the id range each bulk update covers, one transaction per range.
+     */
+    private int chunkSize = 10_000;
+}
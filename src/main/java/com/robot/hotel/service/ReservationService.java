@@ -2,22 +2,41 @@ package com.robot.hotel.service;
 
 import com.robot.hotel.domain.Guest;
 import com.robot.hotel.domain.Reservation;
+import com.robot.hotel.domain.ReservationStatus;
 import com.robot.hotel.domain.Room;
 import com.robot.hotel.dto.GuestDto;
+import com.robot.hotel.dto.ReservationBatchItem;
+import com.robot.hotel.dto.ReservationBatchResult;
 import com.robot.hotel.dto.ReservationDto;
 import com.robot.hotel.dto.RoomDto;
 import com.robot.hotel.repository.GuestRepository;
 import com.robot.hotel.repository.ReservationRepository;
+import com.robot.hotel.repository.ReservationRow;
+import com.robot.hotel.repository.ReservationStay;
+import com.robot.hotel.repository.RoomNightRepository;
 import com.robot.hotel.repository.RoomRepository;
+import com.robot.hotel.service.OccupancyStatistics.Stay;
+import com.robot.hotel.service.RoomAvailabilityIndex.RoomStays;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -26,13 +45,53 @@ public class ReservationService {
     private final ReservationRepository reservationRepository;
     private final GuestRepository guestRepository;
     private final RoomRepository roomRepository;
-    private final RoomService roomService;
+    private final RoomNightRepository roomNightRepository;
+    private final RoomAvailabilityIndex roomAvailabilityIndex;
+    private final OccupancyStatistics occupancyStatistics;
 
 
+    @ReadOnlyTransaction
     public List<ReservationDto> findAll() {
-        return reservationRepository.findAll().stream()
-                .map(ReservationService::buildReservationDto)
-                .collect(Collectors.toList());
+        List<ReservationDto> reservations = new ArrayList<>();
+        streamAll(reservations::add);
+        return reservations;
+    }
+
+    @ReadOnlyTransaction
+    public Page<ReservationDto> findAll(Pageable pageable) {
+        Page<Long> ids = reservationRepository.findIds(pageable);
+        Map<Long, ReservationDto> reservationsById = ids.isEmpty() ? Map.of()
+                : buildReservationDtos(reservationRepository.findRowsByIdIn(ids.getContent())).stream()
+                        .collect(Collectors.toMap(ReservationDto::getId, Function.identity()));
+        return ids.map(reservationsById::get);
+    }
+
+    @ReadOnlyTransaction
+    public List<ReservationDto> findAllAfter(Long lastId, int limit) {
+        return buildReservationDtos(findRowsAfter(lastId, limit));
+    }
+
+    @ReadOnlyTransaction
+    public void streamAll(Consumer<ReservationDto> consumer) {
+        ReservationDtos reservations = new ReservationDtos(consumer);
+        streamRows(reservations);
+        reservations.finish();
+    }
+
+    /**
+     * Rows come ordered by reservation id, one per guest, as {@link ReservationRow} describes.
+     */
+    @ReadOnlyTransaction
+    public void streamRows(Consumer<ReservationRow> consumer) {
+        try (Stream<ReservationRow> rows = reservationRepository.streamRows()) {
+            rows.forEach(consumer);
+        }
+    }
+
+    @ReadOnlyTransaction
+    public List<ReservationRow> findRowsAfter(Long lastId, int limit) {
+        List<Long> ids = reservationRepository.findIdsAfter(lastId, PageRequest.of(0, limit));
+        return ids.isEmpty() ? List.of() : reservationRepository.findRowsByIdIn(ids);
     }
 
     public static ReservationDto buildReservationDto(Reservation reservation) {
@@ -59,20 +118,40 @@ public class ReservationService {
                 .build();
     }
 
+    /**
+     * Groups rows ordered by reservation id into one DTO per reservation.
+     */
+    public static List<ReservationDto> buildReservationDtos(List<ReservationRow> rows) {
+        List<ReservationDto> reservations = new ArrayList<>();
+        ReservationDtos groups = new ReservationDtos(reservations::add);
+        rows.forEach(groups);
+        groups.finish();
+        return reservations;
+    }
+
     public Optional<Reservation> findById(Long id) {
         return reservationRepository.findById(id);
     }
 
+    @ReadOnlyTransaction
+    public Optional<ReservationDto> findDtoById(Long id) {
+        return buildReservationDtos(reservationRepository.findRowsById(id)).stream().findFirst();
+    }
+
+    @ReadOnlyTransaction
     public List<Reservation> findByCheckinDate(LocalDate checkinDate) {
         return reservationRepository.findByCheckinDate(checkinDate);
     }
 
 
 
+    @EvictRoomCaches
     public void createReservation(Reservation reservation, List<Long> guestIds, Long roomId) {
+        // Lock the room row before anything else loads it, so concurrent bookings
+        // for the same room queue up here and each sees the previous one's result.
+        Room room = getRoomById(roomId);
         List<Guest> guests = guestRepository.findAllById(guestIds);
 
-        Room room = getRoomById(roomId);
         checkRoomAvailability(room);
         checkNumberOfGuests(room, guests);
         if (!guests.isEmpty()) {
@@ -83,10 +162,13 @@ public class ReservationService {
         updateRoomAvailability(room);
 
         reservationRepository.save(reservation);
+        roomNightRepository.insertNights(List.of(reservation.getId()));
+        roomAvailabilityIndex.put(reservation.getId(), room.getId(), reservation.getCheckinDate(), reservation.getCheckoutDate());
+        occupancyStatistics.add(reservation);
     }
 
     private Room getRoomById(Long roomId) {
-        Optional<Room> optionalRoom = roomRepository.findById(roomId);
+        Optional<Room> optionalRoom = roomRepository.findByIdForUpdate(roomId);
         if (optionalRoom.isEmpty()) {
             throw new IllegalArgumentException("Invalid room ID: " + roomId);
         }
@@ -107,7 +189,9 @@ public class ReservationService {
     }
 
     private void checkRoomAvailabilityForDates(Room room, LocalDate checkinDate, LocalDate checkoutDate) {
-        if (!roomService.isRoomAvailable(room.getId(), checkinDate, checkoutDate)) {
+        // The in-memory index only sees committed bookings; the night calendar confirms under the room lock.
+        if (!roomAvailabilityIndex.isAvailable(room.getId(), checkinDate, checkoutDate)
+                || roomNightRepository.existsBooked(room.getId(), checkinDate, checkoutDate)) {
             throw new IllegalStateException("The room is not available for these dates.");
         }
     }
@@ -125,17 +209,111 @@ public class ReservationService {
         room.setIsAvailable(false);
     }
 
+    @EvictRoomCaches
+    public List<ReservationBatchResult> importReservations(List<ReservationBatchItem> items) {
+        Set<Long> roomIds = items.stream()
+                .map(ReservationBatchItem::getRoomId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Long> guestIds = items.stream()
+                .filter(item -> item.getGuestIds() != null)
+                .flatMap(item -> item.getGuestIds().stream())
+                .collect(Collectors.toSet());
+
+        Map<Long, Room> rooms = roomRepository.findAllByIdForUpdate(roomIds).stream()
+                .collect(Collectors.toMap(Room::getId, Function.identity()));
+        Map<Long, Guest> guests = guestRepository.findAllById(guestIds).stream()
+                .collect(Collectors.toMap(Guest::getId, Function.identity()));
+        Map<Long, RoomStays> booked = new HashMap<>();
+        for (ReservationStay stay : reservationRepository.findStaysByRoomIdIn(rooms.keySet())) {
+            booked.put(stay.getRoomId(), booked.getOrDefault(stay.getRoomId(), RoomStays.EMPTY)
+                    .with(stay.getId(), stay.getCheckinDate().toEpochDay(), stay.getCheckoutDate().toEpochDay()));
+        }
+
+        List<ReservationBatchResult> results = new ArrayList<>(items.size());
+        List<Reservation> accepted = new ArrayList<>();
+        for (int index = 0; index < items.size(); index++) {
+            ReservationBatchItem item = items.get(index);
+            Room room = rooms.get(item.getRoomId());
+            List<Guest> itemGuests = item.getGuestIds() == null ? List.of() : item.getGuestIds().stream()
+                    .map(guests::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+
+            String error = validateBatchItem(item, room, itemGuests, booked.getOrDefault(item.getRoomId(), RoomStays.EMPTY));
+            if (error != null) {
+                results.add(ReservationBatchResult.builder().index(index).created(false).error(error).build());
+                continue;
+            }
+
+            // Imported stays are checked by dates only; the room-wide availability flag
+            // would reject every second booking of the same room within one batch.
+            Reservation reservation = Reservation.builder()
+                    .checkinDate(item.getCheckinDate())
+                    .checkoutDate(item.getCheckoutDate())
+                    .status(item.getStatus())
+                    .build();
+            configureReservation(reservation, room, itemGuests);
+            updateRoomAvailability(room);
+            accepted.add(reservation);
+            booked.put(room.getId(), booked.getOrDefault(room.getId(), RoomStays.EMPTY)
+                    .with(-(index + 1), item.getCheckinDate().toEpochDay(), item.getCheckoutDate().toEpochDay()));
+            results.add(ReservationBatchResult.builder().index(index).created(true).build());
+        }
+
+        reservationRepository.saveAll(accepted);
+        if (!accepted.isEmpty()) {
+            roomNightRepository.insertNights(accepted.stream().map(Reservation::getId).collect(Collectors.toList()));
+        }
+
+        int next = 0;
+        for (ReservationBatchResult result : results) {
+            if (result.isCreated()) {
+                Reservation reservation = accepted.get(next++);
+                result.setReservationId(reservation.getId());
+                roomAvailabilityIndex.put(reservation.getId(), reservation.getRoom().getId(),
+                        reservation.getCheckinDate(), reservation.getCheckoutDate());
+                occupancyStatistics.add(reservation);
+            }
+        }
+        return results;
+    }
+
+    private String validateBatchItem(ReservationBatchItem item, Room room, List<Guest> guests, RoomStays booked) {
+        if (room == null) {
+            return "Invalid room ID: " + item.getRoomId();
+        }
+        if (item.getCheckinDate() == null || item.getCheckoutDate() == null
+                || !item.getCheckoutDate().isAfter(item.getCheckinDate())) {
+            return "Checkout date must be after checkin date";
+        }
+        if (guests.isEmpty() || guests.size() != item.getGuestIds().size()) {
+            return "Invalid guest IDs";
+        }
+        if (Set.copyOf(item.getGuestIds()).size() != item.getGuestIds().size()) {
+            return "Duplicate guest IDs";
+        }
+        if (guests.size() > room.getMaxNumberOfGuests()) {
+            return "The maximum number of guests for this room is " + room.getMaxNumberOfGuests();
+        }
+        if (booked.overlaps(item.getCheckinDate().toEpochDay(), item.getCheckoutDate().toEpochDay())) {
+            return "The room is not available for these dates.";
+        }
+        return null;
+    }
+
 
     public void addGuestsToReservation(Long reservationId, List<Long> guestIds) {
         Optional<Reservation> optionalReservation = reservationRepository.findById(reservationId);
         if (optionalReservation.isPresent()) {
             Reservation reservation = optionalReservation.get();
 
-            if (reservation.getStatus().equals("Completed")) {
+            if (reservation.getStatus() == ReservationStatus.COMPLETED) {
                 throw new IllegalStateException("Cannot add guests to a completed reservation.");
             }
 
             List<Guest> guests = guestRepository.findAllById(guestIds);
+            Stay before = Stay.of(reservation);
 
             Room room = reservation.getRoom();
             int maxNumberOfGuests = room.getMaxNumberOfGuests();
@@ -152,11 +330,13 @@ public class ReservationService {
             }
 
             reservationRepository.save(reservation);
+            occupancyStatistics.replace(before, reservation);
         } else {
             throw new IllegalArgumentException("Invalid reservation ID: " + reservationId);
         }
     }
 
+    @EvictRoomCaches
     public void removeGuestsFromReservation(Long reservationId, List<Long> guestIds) {
         Optional<Reservation> optionalReservation = reservationRepository.findById(reservationId);
         if (optionalReservation.isPresent()) {
@@ -164,6 +344,7 @@ public class ReservationService {
 
             List<Guest> guestsToRemove = guestRepository.findAllById(guestIds);
             List<Guest> currentGuests = reservation.getGuests();
+            Stay before = Stay.of(reservation);
 
             currentGuests.removeAll(guestsToRemove);
             for (Guest guest : guestsToRemove) {
@@ -171,6 +352,8 @@ public class ReservationService {
                 guest.setReservation(null);
             }
             guestRepository.saveAll(guestsToRemove);
+            // Recorded before a possible delete below, which then removes the guest-less stay.
+            occupancyStatistics.replace(before, reservation);
 
             Room room = reservation.getRoom();
             int currentNumberOfGuests = currentGuests.size();
@@ -184,6 +367,7 @@ public class ReservationService {
         }
     }
 
+    @EvictRoomCaches
     public void moveGuestToRoom(Long guestId, Long currentRoomId, Long newRoomId) {
         Guest guest = guestRepository.findById(guestId)
                 .orElseThrow(() -> new IllegalArgumentException("Invalid guest ID: " + guestId));
@@ -191,7 +375,7 @@ public class ReservationService {
         Room currentRoom = roomRepository.findById(currentRoomId)
                 .orElseThrow(() -> new IllegalArgumentException("Invalid current room ID: " + currentRoomId));
 
-        Room newRoom = roomRepository.findById(newRoomId)
+        Room newRoom = roomRepository.findByIdForUpdate(newRoomId)
                 .orElseThrow(() -> new IllegalArgumentException("Invalid new room ID: " + newRoomId));
 
         Reservation reservation = guest.getReservation();
@@ -212,11 +396,22 @@ public class ReservationService {
             throw new IllegalStateException("The number of guests exceeds the room capacity");
         }
 
+        // Checked under the new room's lock, so a concurrent booking of the same nights waits for this move.
+        if (roomNightRepository.existsBookedByOther(newRoom.getId(), reservation.getCheckinDate(),
+                reservation.getCheckoutDate(), reservation.getId())) {
+            throw new IllegalStateException("The room is not available for these dates.");
+        }
+
         guest.setRoom(newRoom);
         guestRepository.save(guest);
 
+        Stay before = Stay.of(reservation);
         reservation.setRoom(newRoom);
         reservationRepository.save(reservation);
+        roomNightRepository.deleteByReservationId(reservation.getId());
+        roomNightRepository.insertNights(List.of(reservation.getId()));
+        roomAvailabilityIndex.put(reservation.getId(), newRoom.getId(), reservation.getCheckinDate(), reservation.getCheckoutDate());
+        occupancyStatistics.replace(before, reservation);
 
         if(currentRoom.getGuests().size() == 0) {
             currentRoom.setIsAvailable(true);
@@ -228,9 +423,66 @@ public class ReservationService {
     public void deleteReservation(Long id) {
         Reservation reservationToDelete = reservationRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("User not found"));
+        roomNightRepository.deleteByReservationId(id);
         reservationRepository.delete(reservationToDelete);
+        roomAvailabilityIndex.remove(id);
+        occupancyStatistics.remove(reservationToDelete);
 
     }
-}
 
+    /**
+     * Builds a reservation from each run of rows with the same id and hands it on when the
+     * next reservation starts; {@link #finish()} hands on the last one.
+     */
+    private static final class ReservationDtos implements Consumer<ReservationRow> {
+        private final Consumer<ReservationDto> downstream;
+        private ReservationRow open;
+        private List<GuestDto> guests;
+
+        private ReservationDtos(Consumer<ReservationDto> downstream) {
+            this.downstream = downstream;
+        }
+
+        @Override
+        public void accept(ReservationRow row) {
+            if (open == null || !open.id().equals(row.id())) {
+                finish();
+                open = row;
+                guests = new ArrayList<>();
+            }
+            if (row.guestId() != null) {
+                guests.add(GuestDto.builder()
+                        .id(row.guestId())
+                        .firstName(row.firstName())
+                        .lastName(row.lastName())
+                        .dateOfBirth(row.dateOfBirth())
+                        .gender(row.gender())
+                        .passportNumber(row.passportNumber())
+                        .build());
+            }
+        }
 
+        private void finish() {
+            if (open == null) {
+                return;
+            }
+            RoomDto roomDto = open.roomId() == null ? null : RoomDto.builder()
+                    .id(open.roomId())
+                    .roomNumber(open.roomNumber())
+                    .roomType(open.roomType())
+                    .pricePerNight(open.pricePerNight())
+                    .maxNumberOfGuests(open.maxNumberOfGuests())
+                    .isAvailable(open.roomAvailable())
+                    .build();
+            downstream.accept(ReservationDto.builder()
+                    .id(open.id())
+                    .checkinDate(open.checkinDate())
+                    .checkoutDate(open.checkoutDate())
+                    .status(open.status())
+                    .guests(guests)
+                    .room(roomDto)
+                    .build());
+            open = null;
+        }
+    }
+}
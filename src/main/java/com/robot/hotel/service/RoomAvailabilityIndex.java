@@ -0,0 +1,311 @@
+package com.robot.hotel.service;
+
+import com.robot.hotel.repository.ReservationRepository;
+import com.robot.hotel.repository.ReservationStay;
+import jakarta.annotation.PostConstruct;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inventory of booked [checkin, checkout) ranges per room.
+ * Each room keeps an immutable array of its stays sorted by check-in date and a bitset
+ * of booked nights over a rolling horizon starting a week before today. Queries inside
+ * the horizon test whole 64-night words; others fall back to a binary search over the
+ * stays. Neither path touches Hibernate or allocates.
+ * Changes made inside a transaction are applied only after it commits.
+ */
+@Component
+public class RoomAvailabilityIndex {
+    static final int HORIZON_WORDS = 12;
+    static final int HORIZON_DAYS = HORIZON_WORDS * Long.SIZE;
+    private static final int HORIZON_DAYS_BEFORE_TODAY = 7;
+
+    private final ReservationRepository reservationRepository;
+    private final TransactionTemplate snapshotTransaction;
+
+    private final Map<Long, RoomInventory> inventoryByRoom = new ConcurrentHashMap<>();
+    private final Map<Long, Long> roomByReservation = new ConcurrentHashMap<>();
+    private volatile long horizonStart = LocalDate.now().minusDays(HORIZON_DAYS_BEFORE_TODAY).toEpochDay();
+
+    public RoomAvailabilityIndex(ReservationRepository reservationRepository, PlatformTransactionManager transactionManager) {
+        this.reservationRepository = reservationRepository;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Streams every stay ordered by room and check-in, so each room's arrays are
+     * filled in one pass instead of being copied once per reservation.
+     */
+    @PostConstruct
+    public void rebuild() {
+        inventoryByRoom.clear();
+        roomByReservation.clear();
+        snapshotTransaction.executeWithoutResult(status -> {
+            try (Stream<ReservationStay> stays = reservationRepository.streamAllStays()) {
+                Iterator<ReservationStay> iterator = stays.iterator();
+                Long roomId = null;
+                RoomStays.Builder room = null;
+                while (iterator.hasNext()) {
+                    ReservationStay stay = iterator.next();
+                    if (stay.getCheckinDate() == null || stay.getCheckoutDate() == null) {
+                        continue;
+                    }
+                    if (!stay.getRoomId().equals(roomId)) {
+                        if (room != null) {
+                            inventoryByRoom.put(roomId, RoomInventory.of(room.build(), horizonStart));
+                        }
+                        roomId = stay.getRoomId();
+                        room = new RoomStays.Builder();
+                    }
+                    room.add(stay.getId(), stay.getCheckinDate().toEpochDay(), stay.getCheckoutDate().toEpochDay());
+                    roomByReservation.put(stay.getId(), roomId);
+                }
+                if (room != null) {
+                    inventoryByRoom.put(roomId, RoomInventory.of(room.build(), horizonStart));
+                }
+            }
+        });
+    }
+
+    /**
+     * Moves the horizon so it starts a week before the new day. Only the bitsets are
+     * recomputed, from the stays already in memory.
+     */
+    @Scheduled(cron = "0 0 0 * * *")
+    public void rollHorizon() {
+        rollHorizon(LocalDate.now().minusDays(HORIZON_DAYS_BEFORE_TODAY));
+    }
+
+    void rollHorizon(LocalDate start) {
+        horizonStart = start.toEpochDay();
+        inventoryByRoom.replaceAll((roomId, inventory) -> RoomInventory.of(inventory.stays, horizonStart));
+    }
+
+    public boolean isAvailable(Long roomId, LocalDate checkinDate, LocalDate checkoutDate) {
+        RoomInventory inventory = inventoryByRoom.get(roomId);
+        return inventory == null || !inventory.overlaps(checkinDate.toEpochDay(), checkoutDate.toEpochDay());
+    }
+
+    public void put(Long reservationId, Long roomId, LocalDate checkinDate, LocalDate checkoutDate) {
+        AfterCommit.run(() -> apply(reservationId, roomId, checkinDate, checkoutDate));
+    }
+
+    public void remove(Long reservationId) {
+        AfterCommit.run(() -> applyRemove(reservationId));
+    }
+
+    private void apply(Long reservationId, Long roomId, LocalDate checkinDate, LocalDate checkoutDate) {
+        applyRemove(reservationId);
+        if (roomId == null || checkinDate == null || checkoutDate == null) {
+            return;
+        }
+        inventoryByRoom.compute(roomId, (id, inventory) -> RoomInventory.of((inventory == null ? RoomStays.EMPTY : inventory.stays)
+                .with(reservationId, checkinDate.toEpochDay(), checkoutDate.toEpochDay()), horizonStart));
+        roomByReservation.put(reservationId, roomId);
+    }
+
+    private void applyRemove(Long reservationId) {
+        Long roomId = roomByReservation.remove(reservationId);
+        if (roomId != null) {
+            inventoryByRoom.computeIfPresent(roomId, (id, inventory) -> RoomInventory.of(inventory.stays.without(reservationId), horizonStart));
+        }
+    }
+
+    /**
+     * A room's stays together with its booked nights from {@code horizonStart} on, one bit
+     * per night. Each instance carries its own horizon start, so a query never mixes a
+     * bitset with the start of a horizon roll that is still in progress.
+     */
+    static final class RoomInventory {
+        private final RoomStays stays;
+        private final long horizonStart;
+        private final long[] nights;
+
+        private RoomInventory(RoomStays stays, long horizonStart, long[] nights) {
+            this.stays = stays;
+            this.horizonStart = horizonStart;
+            this.nights = nights;
+        }
+
+        static RoomInventory of(RoomStays stays, long horizonStart) {
+            long[] nights = new long[HORIZON_WORDS];
+            for (int i = 0; i < stays.size(); i++) {
+                long from = Math.max(stays.checkins[i] - horizonStart, 0);
+                long to = Math.min(stays.checkouts[i] - horizonStart, HORIZON_DAYS);
+                if (from < to) {
+                    setRange(nights, (int) from, (int) to);
+                }
+            }
+            return new RoomInventory(stays, horizonStart, nights);
+        }
+
+        boolean overlaps(long checkin, long checkout) {
+            if (checkin >= horizonStart && checkout <= horizonStart + HORIZON_DAYS) {
+                return anySet(nights, (int) (checkin - horizonStart), (int) (checkout - horizonStart));
+            }
+            return stays.overlaps(checkin, checkout);
+        }
+
+        private static void setRange(long[] words, int from, int to) {
+            int first = from >>> 6;
+            int last = (to - 1) >>> 6;
+            long firstMask = -1L << from;
+            long lastMask = -1L >>> -to;
+            if (first == last) {
+                words[first] |= firstMask & lastMask;
+                return;
+            }
+            words[first] |= firstMask;
+            for (int i = first + 1; i < last; i++) {
+                words[i] = -1L;
+            }
+            words[last] |= lastMask;
+        }
+
+        private static boolean anySet(long[] words, int from, int to) {
+            if (from >= to) {
+                return false;
+            }
+            int first = from >>> 6;
+            int last = (to - 1) >>> 6;
+            long firstMask = -1L << from;
+            long lastMask = -1L >>> -to;
+            if (first == last) {
+                return (words[first] & firstMask & lastMask) != 0;
+            }
+            if ((words[first] & firstMask) != 0) {
+                return true;
+            }
+            for (int i = first + 1; i < last; i++) {
+                if (words[i] != 0) {
+                    return true;
+                }
+            }
+            return (words[last] & lastMask) != 0;
+        }
+    }
+
+    /**
+     * Stays of a single room sorted by check-in. {@code maxCheckout[i]} holds the latest
+     * check-out among the first {@code i + 1} stays, which keeps the overlap query
+     * logarithmic even if stored ranges overlap each other.
+     */
+    static final class RoomStays {
+        static final RoomStays EMPTY = new RoomStays(new long[0], new long[0], new long[0], new long[0]);
+
+        private final long[] reservationIds;
+        private final long[] checkins;
+        private final long[] checkouts;
+        private final long[] maxCheckout;
+
+        private RoomStays(long[] reservationIds, long[] checkins, long[] checkouts, long[] maxCheckout) {
+            this.reservationIds = reservationIds;
+            this.checkins = checkins;
+            this.checkouts = checkouts;
+            this.maxCheckout = maxCheckout;
+        }
+
+        boolean overlaps(long checkin, long checkout) {
+            int startingBefore = firstIndexAtOrAfter(checkout);
+            return startingBefore > 0 && maxCheckout[startingBefore - 1] > checkin;
+        }
+
+        int size() {
+            return checkins.length;
+        }
+
+        RoomStays with(long reservationId, long checkin, long checkout) {
+            int n = checkins.length;
+            int at = firstIndexAtOrAfter(checkin);
+            long[] ids = insert(reservationIds, at, reservationId);
+            long[] ins = insert(checkins, at, checkin);
+            long[] outs = insert(checkouts, at, checkout);
+            return new RoomStays(ids, ins, outs, runningMax(outs, n + 1));
+        }
+
+        RoomStays without(long reservationId) {
+            int n = checkins.length;
+            for (int i = 0; i < n; i++) {
+                if (reservationIds[i] == reservationId) {
+                    long[] outs = delete(checkouts, i);
+                    return new RoomStays(delete(reservationIds, i), delete(checkins, i), outs, runningMax(outs, n - 1));
+                }
+            }
+            return this;
+        }
+
+        private int firstIndexAtOrAfter(long day) {
+            int low = 0;
+            int high = checkins.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (checkins[mid] < day) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private static long[] insert(long[] source, int at, long value) {
+            long[] target = Arrays.copyOf(source, source.length + 1);
+            System.arraycopy(source, at, target, at + 1, source.length - at);
+            target[at] = value;
+            return target;
+        }
+
+        private static long[] delete(long[] source, int at) {
+            long[] target = new long[source.length - 1];
+            System.arraycopy(source, 0, target, 0, at);
+            System.arraycopy(source, at + 1, target, at, source.length - at - 1);
+            return target;
+        }
+
+        /**
+         * Collects stays that arrive already sorted by check-in.
+         */
+        static final class Builder {
+            private long[] reservationIds = new long[8];
+            private long[] checkins = new long[8];
+            private long[] checkouts = new long[8];
+            private int size;
+
+            void add(long reservationId, long checkin, long checkout) {
+                if (size == checkins.length) {
+                    reservationIds = Arrays.copyOf(reservationIds, size * 2);
+                    checkins = Arrays.copyOf(checkins, size * 2);
+                    checkouts = Arrays.copyOf(checkouts, size * 2);
+                }
+                reservationIds[size] = reservationId;
+                checkins[size] = checkin;
+                checkouts[size] = checkout;
+                size++;
+            }
+
+            RoomStays build() {
+                long[] outs = Arrays.copyOf(checkouts, size);
+                return new RoomStays(Arrays.copyOf(reservationIds, size), Arrays.copyOf(checkins, size), outs, runningMax(outs, size));
+            }
+        }
+
+        private static long[] runningMax(long[] values, int n) {
+            long[] max = new long[n];
+            long current = Long.MIN_VALUE;
+            for (int i = 0; i < n; i++) {
+                current = Math.max(current, values[i]);
+                max[i] = current;
+            }
+            return max;
+        }
+    }
+}
@@ -1,34 +1,97 @@
 package com.robot.hotel.service;
 
 import com.robot.hotel.domain.Guest;
-import com.robot.hotel.domain.Reservation;
 import com.robot.hotel.domain.Room;
+import com.robot.hotel.domain.RoomType;
+import com.robot.hotel.dto.NightlyAvailabilityDto;
+import com.robot.hotel.dto.OccupancyStatsDto;
+import com.robot.hotel.dto.PatchResult;
 import com.robot.hotel.dto.RoomDto;
+import com.robot.hotel.dto.RoomPatch;
 import com.robot.hotel.repository.GuestRepository;
+import com.robot.hotel.repository.NightOccupancy;
+import com.robot.hotel.repository.RoomNightRepository;
 import com.robot.hotel.repository.RoomRepository;
+import com.robot.hotel.repository.RoomRow;
+import com.robot.hotel.repository.RoomTypeCount;
+import com.robot.hotel.service.OccupancyStatistics.Totals;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 @RequiredArgsConstructor
 public class RoomService {
+    public static final String ROOMS = "rooms";
+    public static final String ROOMS_BY_NUMBER = "roomsByNumber";
+    public static final String ROOMS_BY_TYPE = "roomsByType";
+    public static final String ROOMS_BY_CAPACITY = "roomsByCapacity";
+    /**
+     * Longest range, in nights, one occupancy statistics request may cover; the response
+     * holds a row per night and room type.
+     */
+    public static final int MAX_STATS_NIGHTS = 366;
+
     private final RoomRepository roomRepository;
     private final GuestRepository guestRepository;
+    private final RoomNightRepository roomNightRepository;
+    private final RoomAvailabilityIndex roomAvailabilityIndex;
+    private final OccupancyStatistics occupancyStatistics;
+    private final GuestSearchIndex guestSearchIndex;
+    private final CacheManager cacheManager;
 
+    @ReadOnlyTransaction
     public List<RoomDto> findAll() {
-        return roomRepository.findAll().stream()
+        try (Stream<RoomRow> rows = roomRepository.streamRows()) {
+            return rows.map(RoomService::buildRoomDto).collect(Collectors.toList());
+        }
+    }
+
+    @ReadOnlyTransaction
+    public List<RoomDto> findAllAfter(Long lastId, int limit) {
+        return findRowsAfter(lastId, limit).stream()
                 .map(RoomService::buildRoomDto)
                 .collect(Collectors.toList());
     }
 
+    @ReadOnlyTransaction
+    public void streamAll(Consumer<RoomDto> consumer) {
+        streamRows(row -> consumer.accept(buildRoomDto(row)));
+    }
+
+    @ReadOnlyTransaction
+    public void streamRows(Consumer<RoomRow> consumer) {
+        try (Stream<RoomRow> rows = roomRepository.streamRows()) {
+            rows.forEach(consumer);
+        }
+    }
+
+    @ReadOnlyTransaction
+    public List<RoomRow> findRowsAfter(Long lastId, int limit) {
+        return roomRepository.findRowsAfter(lastId, PageRequest.of(0, limit));
+    }
+
     public static RoomDto buildRoomDto(Room room) {
         return RoomDto.builder()
                 .id(room.getId())
@@ -40,53 +103,183 @@ public class RoomService {
                 .build();
     }
 
+    public static RoomDto buildRoomDto(RoomRow room) {
+        return RoomDto.builder()
+                .id(room.id())
+                .roomNumber(room.roomNumber())
+                .roomType(room.roomType())
+                .pricePerNight(room.pricePerNight())
+                .maxNumberOfGuests(room.maxNumberOfGuests())
+                .isAvailable(room.isAvailable())
+                .build();
+    }
+
     public Optional<Room> findById(Long id) {
         return roomRepository.findById(id);
     }
 
-    public Optional<Room> findByRoomNumber(int roomNumber) {
-        return roomRepository.findByRoomNumber(roomNumber);
+    @Cacheable(ROOMS)
+    @ReadOnlyTransaction
+    public Optional<RoomDto> findDtoById(Long id) {
+        return roomRepository.findRowById(id)
+                .map(RoomService::buildRoomDto);
     }
 
-    public List<Room> getAvailableRooms() {
-        return roomRepository.findByIsAvailable(true);
+    @Cacheable(ROOMS_BY_NUMBER)
+    @ReadOnlyTransaction
+    public Optional<RoomDto> findByRoomNumber(int roomNumber) {
+        return roomRepository.findRowByRoomNumber(roomNumber)
+                .map(RoomService::buildRoomDto);
     }
 
-    public List<Room> getUnavailableRooms() {
-        return roomRepository.findByIsAvailable(false);
+    @ReadOnlyTransaction
+    public List<RoomDto> getAvailableRooms() {
+        return roomRepository.findRowsByIsAvailable(true).stream()
+                .map(RoomService::buildRoomDto)
+                .collect(Collectors.toList());
+    }
+
+    @ReadOnlyTransaction
+    public List<RoomDto> getUnavailableRooms() {
+        return roomRepository.findRowsByIsAvailable(false).stream()
+                .map(RoomService::buildRoomDto)
+                .collect(Collectors.toList());
     }
 
-    public List<Room> findByRoomType(String roomType) {
-        return roomRepository.findByRoomType(roomType);
+    @Cacheable(ROOMS_BY_TYPE)
+    @ReadOnlyTransaction
+    public List<RoomDto> findByRoomType(RoomType roomType) {
+        return roomRepository.findRowsByRoomType(roomType).stream()
+                .map(RoomService::buildRoomDto)
+                .collect(Collectors.toList());
     }
 
-    public List<Room> findByMaxNumberOfGuests(int maxNumberOfGuests) {
-        return roomRepository.findByMaxNumberOfGuests(maxNumberOfGuests);
+    @Cacheable(ROOMS_BY_CAPACITY)
+    @ReadOnlyTransaction
+    public List<RoomDto> findByMaxNumberOfGuests(int maxNumberOfGuests) {
+        return roomRepository.findRowsByMaxNumberOfGuests(maxNumberOfGuests).stream()
+                .map(RoomService::buildRoomDto)
+                .collect(Collectors.toList());
     }
 
 
-    public boolean isRoomAvailable(Long roomId, LocalDate checkinDate, LocalDate checkoutDate) {
-        Optional<Room> optionalRoom = roomRepository.findById(roomId);
-        if (optionalRoom.isPresent()) {
-            Room room = optionalRoom.get();
-            List<Reservation> reservations = room.getReservations();
-            for (Reservation reservation : reservations) {
-                LocalDate existingCheckinDate = reservation.getCheckinDate();
-                LocalDate existingCheckoutDate = reservation.getCheckoutDate();
-                if (checkinDate.isBefore(existingCheckoutDate) && checkoutDate.isAfter(existingCheckinDate)) {
-                    return false;
-                }
+    @ReadOnlyTransaction
+    public List<RoomDto> findFreeRooms(RoomType roomType, int minGuests, LocalDate checkinDate, LocalDate checkoutDate) {
+        if (!checkoutDate.isAfter(checkinDate)) {
+            throw new IllegalArgumentException("Checkout date must be after checkin date");
+        }
+        List<RoomRow> rooms = roomType == null
+                ? roomRepository.findRowsByMaxNumberOfGuestsGreaterThanEqualOrderByRoomNumber(minGuests)
+                : roomRepository.findRowsByRoomTypeAndMaxNumberOfGuestsGreaterThanEqualOrderByRoomNumber(roomType, minGuests);
+        return rooms.stream()
+                .filter(room -> roomAvailabilityIndex.isAvailable(room.id(), checkinDate, checkoutDate))
+                .map(RoomService::buildRoomDto)
+                .collect(Collectors.toList());
+    }
+
+    @ReadOnlyTransaction
+    public List<NightlyAvailabilityDto> findAvailabilityByNight(LocalDate from, LocalDate to) {
+        if (!to.isAfter(from)) {
+            throw new IllegalArgumentException("End date must be after start date");
+        }
+        long totalRooms = roomRepository.count();
+        Map<LocalDate, Long> occupiedByNight = roomNightRepository.countOccupiedRoomsByNight(from, to).stream()
+                .collect(Collectors.toMap(NightOccupancy::getNight, NightOccupancy::getOccupiedRooms));
+
+        List<NightlyAvailabilityDto> nights = new ArrayList<>();
+        for (LocalDate night = from; night.isBefore(to); night = night.plusDays(1)) {
+            long occupiedRooms = occupiedByNight.getOrDefault(night, 0L);
+            nights.add(NightlyAvailabilityDto.builder()
+                    .night(night)
+                    .totalRooms(totalRooms)
+                    .occupiedRooms(occupiedRooms)
+                    .freeRooms(totalRooms - occupiedRooms)
+                    .build());
+        }
+        return nights;
+    }
+
+    /**
+     * Occupancy, average daily rate and revenue per available room for every night in
+     * [from, to) and room type, read from the running totals rather than the reservations.
+     */
+    @ReadOnlyTransaction
+    public List<OccupancyStatsDto> findOccupancyStats(LocalDate from, LocalDate to, RoomType roomType) {
+        if (!to.isAfter(from)) {
+            throw new IllegalArgumentException("End date must be after start date");
+        }
+        if (ChronoUnit.DAYS.between(from, to) > MAX_STATS_NIGHTS) {
+            throw new IllegalArgumentException("Statistics cover at most " + MAX_STATS_NIGHTS + " nights per request");
+        }
+        Map<RoomType, Long> roomsByType = new EnumMap<>(RoomType.class);
+        for (RoomTypeCount count : roomRepository.countByRoomType()) {
+            roomsByType.put(count.getRoomType(), count.getRooms());
+        }
+        NavigableMap<LocalDate, Map<RoomType, Totals>> totalsByNight = occupancyStatistics.between(from, to);
+
+        List<OccupancyStatsDto> stats = new ArrayList<>();
+        for (LocalDate night = from; night.isBefore(to); night = night.plusDays(1)) {
+            Map<RoomType, Totals> totalsByType = totalsByNight.getOrDefault(night, Map.of());
+            Set<RoomType> roomTypes = EnumSet.noneOf(RoomType.class);
+            roomTypes.addAll(roomsByType.keySet());
+            roomTypes.addAll(totalsByType.keySet());
+            if (roomType != null) {
+                roomTypes.retainAll(Set.of(roomType));
             }
-            return true;
+            for (RoomType type : roomTypes) {
+                stats.add(buildOccupancyStatsDto(night, type, roomsByType.getOrDefault(type, 0L),
+                        totalsByType.getOrDefault(type, new Totals(0, 0, 0))));
+            }
+        }
+        return stats;
+    }
+
+    private static OccupancyStatsDto buildOccupancyStatsDto(LocalDate night, RoomType roomType, long rooms, Totals totals) {
+        double revenue = totals.revenueCents() / 100.0;
+        return OccupancyStatsDto.builder()
+                .night(night)
+                .roomType(roomType)
+                .rooms(rooms)
+                .roomsSold(totals.roomsSold())
+                .guests(totals.guests())
+                .revenue(revenue)
+                .occupancyRate(rooms == 0 ? 0 : (double) totals.roomsSold() / rooms)
+                .averageDailyRate(totals.roomsSold() == 0 ? 0 : revenue / totals.roomsSold())
+                .revenuePerAvailableRoom(rooms == 0 ? 0 : revenue / rooms)
+                .build();
+    }
+
+    @ReadOnlyTransaction
+    public boolean isRoomAvailable(Long roomId, LocalDate checkinDate, LocalDate checkoutDate) {
+        if (cachedRoom(roomId) == null) {
+            return false;
         }
-        return false;
+        return roomAvailabilityIndex.isAvailable(roomId, checkinDate, checkoutDate);
     }
 
+    /**
+     * The entry {@link #findDtoById} caches for the room, loaded on a miss. Read through the
+     * cache directly because a call on {@code this} bypasses the caching proxy; deleted rooms
+     * are evicted by {@link EvictRoomCaches} and come back as {@code null}.
+     */
+    private RoomDto cachedRoom(Long roomId) {
+        Cache rooms = cacheManager.getCache(ROOMS);
+        if (rooms == null) {
+            return roomRepository.findRowById(roomId).map(RoomService::buildRoomDto).orElse(null);
+        }
+        return rooms.get(roomId, () -> roomRepository.findRowById(roomId).map(RoomService::buildRoomDto).orElse(null));
+    }
 
+
+    @EvictRoomCaches
     public void saveRoom(Room room) {
+        if (room.getRoomType() == null) {
+            room.setRoomType(RoomType.STANDARD);
+        }
         roomRepository.save(room);
     }
 
+    @EvictRoomCaches
     public void updateRoomNumber(Long roomId, int roomNumber) {
         Room room = roomRepository.findById(roomId)
                 .orElseThrow(() -> new EntityNotFoundException("Room not found"));
@@ -95,22 +288,27 @@ public class RoomService {
         roomRepository.save(room);
     }
 
-    public void updateRoomType(Long roomId, String roomType) {
-        Room room = roomRepository.findById(roomId)
+    @EvictRoomCaches
+    public void updateRoomType(Long roomId, RoomType roomType) {
+        Room room = roomRepository.findByIdForUpdate(roomId)
                 .orElseThrow(() -> new EntityNotFoundException("Room not found"));
+        occupancyStatistics.rekeyRoom(roomId, room.getRoomType(), room.getPricePerNight(), roomType, room.getPricePerNight());
         room.setRoomType(roomType);
 
         roomRepository.save(room);
     }
 
+    @EvictRoomCaches
     public void updatePricePerNight(Long roomId, double pricePerNight) {
-        Room room = roomRepository.findById(roomId)
+        Room room = roomRepository.findByIdForUpdate(roomId)
                 .orElseThrow(() -> new EntityNotFoundException("Room not found"));
+        occupancyStatistics.rekeyRoom(roomId, room.getRoomType(), room.getPricePerNight(), room.getRoomType(), pricePerNight);
         room.setPricePerNight(pricePerNight);
 
         roomRepository.save(room);
     }
 
+    @EvictRoomCaches
     public void updateMaxNumberOfGuests(Long roomId, int maxNumberOfGuests) {
         Room room = roomRepository.findById(roomId)
                 .orElseThrow(() -> new EntityNotFoundException("Room not found"));
@@ -119,6 +317,7 @@ public class RoomService {
         roomRepository.save(room);
     }
 
+    @EvictRoomCaches
     public void updateIsAvailable(Long roomId, boolean isAvailable) {
         Room room = roomRepository.findById(roomId)
                 .orElseThrow(() -> new EntityNotFoundException("Room not found"));
@@ -126,10 +325,57 @@ public class RoomService {
         roomRepository.save(room);
     }
 
+    /**
+     * Applies the non-null fields of each patch, one batched UPDATE per room; see
+     * {@link GuestService#patchGuests}. The rooms are locked like for a booking, so their
+     * statistics can be re-keyed to a new price or type.
+     */
+    @EvictRoomCaches
+    public List<PatchResult> patchRooms(List<RoomPatch> patches) {
+        Map<Long, RoomPatch> merged = Patches.coalesce(patches, RoomPatch::getId, RoomService::merge);
+        Map<Long, Room> rooms = roomRepository.findAllByIdForUpdate(merged.keySet()).stream()
+                .collect(Collectors.toMap(Room::getId, Function.identity()));
+
+        List<PatchResult> results = new ArrayList<>(merged.size());
+        for (RoomPatch patch : merged.values()) {
+            Room room = rooms.get(patch.getId());
+            if (room == null) {
+                results.add(PatchResult.builder().id(patch.getId()).updated(false).error("Room not found").build());
+                continue;
+            }
+            occupancyStatistics.rekeyRoom(room.getId(), room.getRoomType(), room.getPricePerNight(),
+                    Patches.latest(room.getRoomType(), patch.getRoomType()),
+                    Patches.latest(room.getPricePerNight(), patch.getPricePerNight()));
+            applyPatch(room, patch);
+            results.add(PatchResult.builder().id(patch.getId()).updated(true).build());
+        }
+        return results;
+    }
+
+    static RoomPatch merge(RoomPatch earlier, RoomPatch later) {
+        return RoomPatch.builder()
+                .id(earlier.getId())
+                .roomNumber(Patches.latest(earlier.getRoomNumber(), later.getRoomNumber()))
+                .roomType(Patches.latest(earlier.getRoomType(), later.getRoomType()))
+                .pricePerNight(Patches.latest(earlier.getPricePerNight(), later.getPricePerNight()))
+                .maxNumberOfGuests(Patches.latest(earlier.getMaxNumberOfGuests(), later.getMaxNumberOfGuests()))
+                .isAvailable(Patches.latest(earlier.getIsAvailable(), later.getIsAvailable()))
+                .build();
+    }
+
+    private static void applyPatch(Room room, RoomPatch patch) {
+        room.setRoomNumber(Patches.latest(room.getRoomNumber(), patch.getRoomNumber()));
+        room.setRoomType(Patches.latest(room.getRoomType(), patch.getRoomType()));
+        room.setPricePerNight(Patches.latest(room.getPricePerNight(), patch.getPricePerNight()));
+        room.setMaxNumberOfGuests(Patches.latest(room.getMaxNumberOfGuests(), patch.getMaxNumberOfGuests()));
+        room.setIsAvailable(Patches.latest(room.isAvailable(), patch.getIsAvailable()));
+    }
+
     public void addGuestToRoom(Optional<Room> room, Guest guest) {
         room.ifPresent(r -> {
             guest.setRoom(r);
             guestRepository.save(guest);
+            guestSearchIndex.put(guest);
             roomRepository.save(r);
             r.getGuests().add(guest);
         });
@@ -150,6 +396,7 @@ public class RoomService {
         }
     }
 
+    @EvictRoomCaches
     public void deleteRoom(Long id) {
         Room roomToDelete = roomRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("User not found"));
@@ -0,0 +1,126 @@
+package db.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Turns guest.date_of_birth from free text into a date column with an index, so age
+ * ranges are answered by the database. Values are read in id-ordered chunks and written
+ * back with batched updates by primary key; each distinct text is parsed only once.
+ * Values that match no known format are kept in guest_unparsed_date_of_birth rather
+ * than lost, and the guest's date of birth is left empty.
+ * <p>
+ * Written in Java because SQL has no lenient, multi-format date parsing that leaves
+ * invalid values alone instead of failing the whole migration.
+ */
+@Slf4j
+public class V6__guest_date_of_birth extends BaseJavaMigration {
+    private static final int CHUNK_SIZE = 10_000;
+
+    private static final List<DateTimeFormatter> FORMATS = List.of(
+            DateTimeFormatter.ISO_LOCAL_DATE,
+            pattern("d.M.uuuu"),
+            pattern("d/M/uuuu"),
+            pattern("d-M-uuuu"),
+            pattern("uuuu/M/d"),
+            DateTimeFormatter.BASIC_ISO_DATE);
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("alter table guest add column date_of_birth_parsed date");
+            statement.execute("create table guest_unparsed_date_of_birth (guest_id bigint primary key, date_of_birth varchar(255))");
+        }
+
+        Map<String, Optional<LocalDate>> parsed = new HashMap<>();
+        long converted = 0;
+        long unparsed = 0;
+        try (PreparedStatement select = connection.prepareStatement(
+                "select id, date_of_birth from guest where id > ? and date_of_birth is not null order by id limit ?");
+             PreparedStatement update = connection.prepareStatement("update guest set date_of_birth_parsed = ? where id = ?");
+             PreparedStatement reject = connection.prepareStatement(
+                     "insert into guest_unparsed_date_of_birth (guest_id, date_of_birth) values (?, ?)")) {
+            long lastId = Long.MIN_VALUE;
+            int rows;
+            do {
+                rows = 0;
+                select.setLong(1, lastId);
+                select.setInt(2, CHUNK_SIZE);
+                try (ResultSet resultSet = select.executeQuery()) {
+                    while (resultSet.next()) {
+                        rows++;
+                        lastId = resultSet.getLong(1);
+                        String text = resultSet.getString(2);
+                        Optional<LocalDate> date = parsed.computeIfAbsent(text, V6__guest_date_of_birth::parse);
+                        if (date.isPresent()) {
+                            update.setDate(1, Date.valueOf(date.get()));
+                            update.setLong(2, lastId);
+                            update.addBatch();
+                            converted++;
+                        } else if (!text.isBlank()) {
+                            reject.setLong(1, lastId);
+                            reject.setString(2, text);
+                            reject.addBatch();
+                            unparsed++;
+                        }
+                    }
+                }
+                executeBatch(update);
+                executeBatch(reject);
+            } while (rows == CHUNK_SIZE);
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("alter table guest drop column date_of_birth");
+            statement.execute("alter table guest alter column date_of_birth_parsed rename to date_of_birth");
+            statement.execute("create index idx_guest_date_of_birth on guest (date_of_birth)");
+        }
+        if (unparsed > 0) {
+            log.warn("Converted {} guest dates of birth; {} could not be parsed and were moved to guest_unparsed_date_of_birth",
+                    converted, unparsed);
+        } else {
+            log.info("Converted {} guest dates of birth", converted);
+        }
+    }
+
+    /**
+     * The date in the first format that reads the whole trimmed text as a valid date.
+     */
+    static Optional<LocalDate> parse(String text) {
+        String value = text.strip();
+        for (DateTimeFormatter format : FORMATS) {
+            try {
+                return Optional.of(LocalDate.parse(value, format));
+            } catch (DateTimeParseException e) {
+                // try the next format
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static DateTimeFormatter pattern(String pattern) {
+        return DateTimeFormatter.ofPattern(pattern).withResolverStyle(ResolverStyle.STRICT);
+    }
+
+    private static void executeBatch(PreparedStatement statement) throws SQLException {
+        statement.executeBatch();
+        statement.clearBatch();
+    }
+}
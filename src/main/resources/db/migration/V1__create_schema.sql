@@ -0,0 +1,44 @@
+-- Schema as it was generated by Hibernate before migrations took it over.
+-- Existing databases are baselined at this version and skip this script.
+
+create table room (
+    id bigint generated by default as identity,
+    is_available boolean,
+    max_number_of_guests integer,
+    price_per_night float(53),
+    room_number integer,
+    room_type varchar(255),
+    primary key (id)
+);
+
+create table reservation (
+    id bigint generated by default as identity,
+    checkin_date date,
+    checkout_date date,
+    status varchar(255),
+    room_id bigint,
+    primary key (id)
+);
+
+create table guest (
+    id bigint generated by default as identity,
+    date_of_birth varchar(255),
+    first_name varchar(255),
+    gender varchar(255),
+    last_name varchar(255),
+    passport_number varchar(255),
+    room_id bigint,
+    reservation_id bigint,
+    primary key (id)
+);
+
+create table reservation_guest (
+    reservation_id bigint not null,
+    guest_id bigint not null
+);
+
+alter table reservation_guest add constraint fk_reservation_guest_reservation foreign key (reservation_id) references reservation (id);
+alter table reservation_guest add constraint fk_reservation_guest_guest foreign key (guest_id) references guest (id);
+alter table guest add constraint fk_guest_reservation foreign key (reservation_id) references reservation (id);
+alter table guest add constraint fk_guest_room foreign key (room_id) references room (id);
+alter table reservation add constraint fk_reservation_room foreign key (room_id) references room (id);
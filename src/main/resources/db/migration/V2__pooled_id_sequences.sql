@@ -0,0 +1,8 @@
+-- Guest and reservation ids are drawn from sequences in blocks of 50 so inserts can be batched.
+-- Restart each sequence past the highest id that the identity columns already handed out.
+
+create sequence if not exists guest_seq start with 1 increment by 50;
+create sequence if not exists reservation_seq start with 1 increment by 50;
+
+alter sequence guest_seq restart with (select coalesce(max(id), 0) + 50 from guest);
+alter sequence reservation_seq restart with (select coalesce(max(id), 0) + 50 from reservation);
@@ -0,0 +1,16 @@
+-- Indexes behind the finder methods and the date-range overlap checks.
+
+create index if not exists idx_reservation_checkin_date on reservation (checkin_date);
+create index if not exists idx_reservation_room_dates on reservation (room_id, checkin_date, checkout_date);
+
+create index if not exists idx_room_room_type on room (room_type);
+create index if not exists idx_room_is_available on room (is_available);
+create index if not exists idx_room_max_number_of_guests on room (max_number_of_guests);
+alter table room add constraint if not exists uk_room_room_number unique (room_number);
+
+create index if not exists idx_guest_last_name on guest (last_name);
+
+-- Existing guest rows share passport numbers, so a unique constraint cannot be added everywhere.
+-- Use a plain index on every database instead of one that only some schema updates managed to create.
+alter table guest drop constraint if exists uk_guest_passport_number;
+create index if not exists idx_guest_passport_number on guest (passport_number);
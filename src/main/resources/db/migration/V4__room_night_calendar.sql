@@ -0,0 +1,22 @@
+-- One row per room per booked night, so "is this room free on these nights" is a primary key
+-- range probe and nightly occupancy is a scan of the night index instead of the stay ranges.
+-- reservation_id stays in the key because old data may hold overlapping stays of one room.
+
+create table room_night (
+    room_id bigint not null,
+    night date not null,
+    reservation_id bigint not null,
+    primary key (room_id, night, reservation_id)
+);
+
+alter table room_night add constraint fk_room_night_room foreign key (room_id) references room (id) on delete cascade;
+alter table room_night add constraint fk_room_night_reservation foreign key (reservation_id) references reservation (id) on delete cascade;
+create index idx_room_night_night on room_night (night);
+create index idx_room_night_reservation on room_night (reservation_id);
+
+insert into room_night (room_id, night, reservation_id)
+select r.room_id, dateadd(day, n.x, r.checkin_date), r.id
+from reservation r
+join system_range(0, (select coalesce(max(datediff(day, checkin_date, checkout_date)), 0) from reservation)) n
+    on n.x < datediff(day, r.checkin_date, r.checkout_date)
+where r.room_id is not null;
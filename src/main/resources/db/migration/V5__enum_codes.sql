@@ -0,0 +1,38 @@
+-- Room types and reservation statuses are stored as the small integer codes of
+-- RoomType and ReservationStatus instead of free text.
+-- Unknown room types become Standard (1), a missing one too, so every room has a type.
+-- Statuses found in existing data: Reserved (1) and Started, a stay in progress, which is CheckedIn (2).
+-- Booked, Pending and other unknown statuses become Reserved (1); a missing status stays null.
+
+alter table room add column room_type_code smallint;
+update room set room_type_code = case lower(trim(room_type))
+    when 'single' then 2
+    when 'double' then 3
+    when 'twin' then 4
+    when 'deluxe' then 5
+    when 'suite' then 6
+    when 'studio' then 7
+    when 'loft' then 8
+    when 'family' then 9
+    when 'penthouse' then 10
+    else 1
+end;
+drop index if exists idx_room_room_type;
+alter table room drop column room_type;
+alter table room alter column room_type_code rename to room_type;
+alter table room alter column room_type set not null;
+-- Type searches also filter on capacity, and the type alone is a prefix of this index.
+create index idx_room_type_capacity on room (room_type, max_number_of_guests);
+
+alter table reservation add column status_code smallint;
+update reservation set status_code = case replace(replace(replace(lower(trim(status)), '_', ''), '-', ''), ' ', '')
+    when 'checkedin' then 2
+    when 'started' then 2
+    when 'completed' then 3
+    when 'cancelled' then 4
+    when 'canceled' then 4
+    else 1
+end
+where status is not null;
+alter table reservation drop column status;
+alter table reservation alter column status_code rename to status;
@@ -0,0 +1,23 @@
+-- Passport numbers identify a guest, but existing guest rows share some of them
+-- (the bundled data has five guests with TO19546883), which kept V3 from adding the constraint.
+-- The lowest guest id keeps each shared number; the other guests' numbers are kept in
+-- guest_duplicate_passport_number rather than lost, and cleared on the guest.
+
+create table guest_duplicate_passport_number (
+    guest_id bigint not null,
+    passport_number varchar(255) not null,
+    primary key (guest_id)
+);
+
+insert into guest_duplicate_passport_number (guest_id, passport_number)
+select g.id, g.passport_number
+from guest g
+where g.passport_number is not null
+  and exists (select 1 from guest k where k.passport_number = g.passport_number and k.id < g.id);
+
+update guest set passport_number = null
+where id in (select guest_id from guest_duplicate_passport_number);
+
+-- The constraint's own index serves the passport lookups.
+drop index if exists idx_guest_passport_number;
+alter table guest add constraint uk_guest_passport_number unique (passport_number);
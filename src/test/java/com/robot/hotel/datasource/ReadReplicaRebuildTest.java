@@ -0,0 +1,38 @@
+package com.robot.hotel.datasource;
+
+import com.robot.hotel.service.GuestSearchIndex;
+import com.robot.hotel.service.OccupancyStatistics;
+import com.robot.hotel.service.RoomAvailabilityIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThatNoException;
+
+/**
+ * The replica is an empty database here, so any rebuild that read from it would fail
+ * on the missing tables, at startup or below.
+ */
+@SpringBootTest(properties = {
+        "hotel.read-replica.enabled=true",
+        "hotel.read-replica.url=jdbc:h2:mem:empty-replica;DB_CLOSE_DELAY=-1"
+})
+@ActiveProfiles("test")
+class ReadReplicaRebuildTest {
+    @Autowired
+    private RoomAvailabilityIndex roomAvailabilityIndex;
+    @Autowired
+    private OccupancyStatistics occupancyStatistics;
+    @Autowired
+    private GuestSearchIndex guestSearchIndex;
+
+    @Test
+    void rebuildsReadThePrimary() {
+        assertThatNoException().isThrownBy(() -> {
+            roomAvailabilityIndex.rebuild();
+            occupancyStatistics.rebuild();
+            guestSearchIndex.rebuild();
+        });
+    }
+}
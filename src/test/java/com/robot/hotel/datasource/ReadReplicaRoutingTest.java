@@ -0,0 +1,71 @@
+package com.robot.hotel.datasource;
+
+import com.robot.hotel.repository.RoomRepository;
+import com.robot.hotel.service.ReadOnlyTransaction;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "hotel.read-replica.enabled=true")
+@ActiveProfiles("test")
+class ReadReplicaRoutingTest {
+    @Autowired
+    private PoolProbe poolProbe;
+
+    @Test
+    void readOnlyTransactionsUseTheReplica() {
+        assertThat(poolProbe.readOnly()).isEqualTo("primary 0, replica 1");
+    }
+
+    @Test
+    void readWriteTransactionsUseThePrimary() {
+        assertThat(poolProbe.readWrite()).isEqualTo("primary 1, replica 0");
+    }
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        PoolProbe poolProbe(RoomRepository roomRepository, ReadReplicaPools pools) {
+            return new PoolProbe(roomRepository, pools);
+        }
+    }
+
+    static class PoolProbe {
+        private final RoomRepository roomRepository;
+        private final ReadReplicaPools pools;
+
+        PoolProbe(RoomRepository roomRepository, ReadReplicaPools pools) {
+            this.roomRepository = roomRepository;
+            this.pools = pools;
+        }
+
+        @ReadOnlyTransaction
+        public String readOnly() {
+            roomRepository.count();
+            return activeConnections();
+        }
+
+        @Transactional
+        public String readWrite() {
+            roomRepository.count();
+            return activeConnections();
+        }
+
+        private String activeConnections() {
+            return "primary " + active(pools.primary()) + ", replica " + active(pools.replica());
+        }
+
+        private static int active(HikariDataSource pool) {
+            HikariPoolMXBean bean = pool.getHikariPoolMXBean();
+            return bean == null ? 0 : bean.getActiveConnections();
+        }
+    }
+}
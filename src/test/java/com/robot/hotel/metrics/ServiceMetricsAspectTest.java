@@ -0,0 +1,43 @@
+package com.robot.hotel.metrics;
+
+import com.robot.hotel.service.GuestService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ServiceMetricsAspectTest {
+    @Autowired
+    private GuestService guestService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void timesServiceCallsByOutcome() {
+        guestService.findAll();
+        assertThatThrownBy(() -> guestService.updateFirstName(-1L, "Nobody"))
+                .isInstanceOf(EntityNotFoundException.class);
+
+        assertThat(meterRegistry.get(ServiceMetricsAspect.TIMER)
+                .tag("class", "GuestService").tag("method", "findAll").tag("outcome", "success")
+                .timer().count()).isPositive();
+        assertThat(meterRegistry.get(ServiceMetricsAspect.TIMER)
+                .tag("method", "updateFirstName").tag("outcome", "error").tag("exception", "EntityNotFoundException")
+                .timer().count()).isPositive();
+    }
+
+    @Test
+    void recordsJdbcStatementsPerSession() {
+        guestService.findAll();
+
+        assertThat(meterRegistry.get("hotel.jdbc.statements").summary().count()).isPositive();
+        assertThat(meterRegistry.get("hotel.jdbc.time").timer().count()).isPositive();
+    }
+}
@@ -0,0 +1,73 @@
+package com.robot.hotel.metrics;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class SqlStatementLogTest {
+    private final SqlLogProperties properties = new SqlLogProperties();
+    private final SqlStatementLog sqlStatementLog = new SqlStatementLog(properties);
+
+    @Test
+    void collapsesLiteralsAndInListsIntoOneShape() {
+        assertThat(SqlStatementLog.shapeOf("select r1_0.id from room r1_0 where r1_0.room_number=101 and r1_0.room_type='Deluxe'"))
+                .isEqualTo("select r1_0.id from room r1_0 where r1_0.room_number=? and r1_0.room_type=?");
+        assertThat(SqlStatementLog.shapeOf("select * from guest\n  where id in (?, ?,?)"))
+                .isEqualTo("select * from guest where id in (?...)");
+    }
+
+    @Test
+    void aggregatesStatementsPerShape() {
+        execute("select * from guest where id in (?,?)", 3);
+        execute("select * from guest where id in (?,?,?,?)", 7);
+        execute("select * from room where id=?", 1);
+
+        List<SqlStatementLog.ShapeStats> statistics = sqlStatementLog.statistics();
+
+        assertThat(statistics).hasSize(2);
+        assertThat(statistics.get(0).shape()).isEqualTo("select * from guest where id in (?...)");
+        assertThat(statistics.get(0).count()).isEqualTo(2);
+        assertThat(statistics.get(0).totalMillis()).isEqualTo(10);
+        assertThat(statistics.get(0).maxMillis()).isEqualTo(7);
+    }
+
+    @Test
+    void foldsShapesBeyondTheLimitIntoOther() {
+        properties.setMaxShapes(2);
+
+        execute("select * from guest", 1);
+        execute("select * from room", 1);
+        execute("select * from reservation", 1);
+        execute("select * from reservation_guest", 1);
+
+        assertThat(sqlStatementLog.statistics())
+                .extracting(SqlStatementLog.ShapeStats::shape)
+                .containsExactlyInAnyOrder("select * from guest", "select * from room", SqlStatementLog.OTHER_SHAPES);
+    }
+
+    @Test
+    void remembersShapesOfAtMostTheConfiguredNumberOfStatements() {
+        properties.setMaxCachedStatements(1);
+
+        execute("select * from guest where id=1", 1);
+        execute("select * from guest where id=1", 1);
+        execute("select * from guest where id=2", 1);
+
+        assertThat(sqlStatementLog.cachedStatements()).isEqualTo(1);
+        assertThat(sqlStatementLog.statistics())
+                .extracting(SqlStatementLog.ShapeStats::shape, SqlStatementLog.ShapeStats::count)
+                .containsExactly(tuple("select * from guest where id=?", 3L));
+    }
+
+    private void execute(String sql, long elapsedMillis) {
+        ExecutionInfo executionInfo = new ExecutionInfo();
+        executionInfo.setElapsedTime(elapsedMillis);
+        executionInfo.setSuccess(true);
+        sqlStatementLog.afterQuery(executionInfo, List.of(new QueryInfo(sql)));
+    }
+}
@@ -0,0 +1,60 @@
+package com.robot.hotel.repository;
+
+import com.robot.hotel.domain.Guest;
+import com.robot.hotel.domain.Reservation;
+import com.robot.hotel.domain.ReservationStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class GuestRepositoryTest {
+    @Autowired
+    private GuestRepository guestRepository;
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    private Reservation reservation;
+
+    @BeforeEach
+    void setUp() {
+        Guest parent = guestRepository.save(guest("Parent", LocalDate.of(1985, 3, 14)));
+        Guest turnsEighteen = guestRepository.save(guest("Adult", LocalDate.of(2006, 6, 1)));
+        Guest child = guestRepository.save(guest("Child", LocalDate.of(2015, 9, 30)));
+        guestRepository.save(guest("Unknown", null));
+        reservation = reservationRepository.save(Reservation.builder().checkinDate(LocalDate.of(2024, 6, 1))
+                .checkoutDate(LocalDate.of(2024, 6, 3)).status(ReservationStatus.RESERVED)
+                .guests(List.of(parent, turnsEighteen, child)).build());
+    }
+
+    @Test
+    void findsGuestsBornInRangeOldestFirst() {
+        assertThat(guestRepository.findRowsByDateOfBirthBetweenOrderByDateOfBirthAscIdAsc(
+                LocalDate.of(1980, 1, 1), LocalDate.of(2006, 6, 1), PageRequest.of(0, 10)))
+                .extracting(GuestRow::firstName)
+                .containsExactly("Parent", "Adult");
+        assertThat(guestRepository.findRowsByDateOfBirthBetweenOrderByDateOfBirthAscIdAsc(
+                LocalDate.of(1980, 1, 1), LocalDate.of(2020, 1, 1), PageRequest.of(1, 2)))
+                .extracting(GuestRow::firstName)
+                .containsExactly("Child");
+    }
+
+    @Test
+    void findsGuestsOfReservationBornAfterDate() {
+        // On 2024-06-01 a guest born 2006-06-01 turns eighteen.
+        assertThat(guestRepository.findRowsByReservationIdBornAfter(reservation.getId(), LocalDate.of(2006, 6, 1)))
+                .extracting(GuestRow::firstName)
+                .containsExactly("Child");
+    }
+
+    private static Guest guest(String firstName, LocalDate dateOfBirth) {
+        return Guest.builder().firstName(firstName).lastName("Age").dateOfBirth(dateOfBirth).build();
+    }
+}
@@ -0,0 +1,64 @@
+package com.robot.hotel.repository;
+
+import com.robot.hotel.domain.Reservation;
+import com.robot.hotel.domain.ReservationStatus;
+import com.robot.hotel.domain.Room;
+import com.robot.hotel.domain.RoomType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class RoomRepositoryTest {
+    private static final LocalDate MAY_1 = LocalDate.of(2024, 5, 1);
+
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private ReservationRepository reservationRepository;
+    @Autowired
+    private RoomNightRepository roomNightRepository;
+
+    @BeforeEach
+    void setUp() {
+        Room single = roomRepository.save(Room.builder().roomNumber(101).roomType(RoomType.SINGLE).maxNumberOfGuests(1).build());
+        Room doubleBooked = roomRepository.save(Room.builder().roomNumber(102).roomType(RoomType.DOUBLE).maxNumberOfGuests(2).build());
+        roomRepository.save(Room.builder().roomNumber(103).roomType(RoomType.DOUBLE).maxNumberOfGuests(2).build());
+        roomRepository.save(Room.builder().roomNumber(104).roomType(RoomType.SUITE).maxNumberOfGuests(4).build());
+
+        Reservation first = reservationRepository.save(Reservation.builder().room(doubleBooked)
+                .checkinDate(MAY_1).checkoutDate(MAY_1.plusDays(3)).status(ReservationStatus.RESERVED).build());
+        Reservation second = reservationRepository.save(Reservation.builder().room(single)
+                .checkinDate(MAY_1.minusDays(2)).checkoutDate(MAY_1).status(ReservationStatus.RESERVED).build());
+        roomNightRepository.insertNights(List.of(first.getId(), second.getId()));
+    }
+
+    @Test
+    void findsRoomsWithEnoughCapacityInRoomNumberOrder() {
+        assertThat(roomRepository.findRowsByMaxNumberOfGuestsGreaterThanEqualOrderByRoomNumber(2))
+                .extracting(RoomRow::roomNumber)
+                .containsExactly(102, 103, 104);
+    }
+
+    @Test
+    void findsRoomsOfTypeWithEnoughCapacity() {
+        assertThat(roomRepository.findRowsByRoomTypeAndMaxNumberOfGuestsGreaterThanEqualOrderByRoomNumber(RoomType.DOUBLE, 2))
+                .extracting(RoomRow::roomNumber)
+                .containsExactly(102, 103);
+        assertThat(roomRepository.findRowsByRoomTypeAndMaxNumberOfGuestsGreaterThanEqualOrderByRoomNumber(RoomType.DOUBLE, 3))
+                .isEmpty();
+    }
+
+    @Test
+    void nightCalendarHoldsEveryBookedNight() {
+        assertThat(roomNightRepository.countOccupiedRoomsByNight(MAY_1.minusDays(2), MAY_1.plusDays(4)))
+                .extracting(NightOccupancy::getOccupiedRooms)
+                .containsExactly(1L, 1L, 1L, 1L, 1L);
+    }
+}
@@ -0,0 +1,103 @@
+package com.robot.hotel.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.robot.hotel.domain.Guest;
+import com.robot.hotel.domain.Reservation;
+import com.robot.hotel.domain.ReservationStatus;
+import com.robot.hotel.domain.Room;
+import com.robot.hotel.domain.RoomType;
+import com.robot.hotel.repository.GuestRepository;
+import com.robot.hotel.repository.ReservationRepository;
+import com.robot.hotel.repository.RoomRepository;
+import com.robot.hotel.service.GuestService;
+import com.robot.hotel.service.ReservationService;
+import com.robot.hotel.service.RoomService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CompactJsonWriterTest {
+    private static final LocalDate MAY_1 = LocalDate.of(2024, 5, 1);
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private RoomService roomService;
+    @Autowired
+    private GuestService guestService;
+    @Autowired
+    private ReservationService reservationService;
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private GuestRepository guestRepository;
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @BeforeEach
+    void setUp() {
+        Room suite = roomRepository.save(Room.builder().roomNumber(601).roomType(RoomType.SUITE).pricePerNight(250.5).maxNumberOfGuests(3).isAvailable(true).build());
+        Room single = roomRepository.save(Room.builder().roomNumber(602).roomType(RoomType.SINGLE).pricePerNight(60).maxNumberOfGuests(1).build());
+        Guest first = guestRepository.save(Guest.builder().firstName("Ann").lastName("Json").dateOfBirth(LocalDate.of(1990, 2, 1)).gender("female").passportNumber("JS1").build());
+        Guest second = guestRepository.save(Guest.builder().firstName("Ben \"BJ\"").lastName("Json").build());
+        reservationRepository.save(Reservation.builder().room(suite).checkinDate(MAY_1).checkoutDate(MAY_1.plusDays(2))
+                .status(ReservationStatus.RESERVED).guests(List.of(first, second)).build());
+        reservationRepository.save(Reservation.builder().room(single).checkinDate(MAY_1).status(ReservationStatus.CANCELLED).guests(List.of()).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        reservationRepository.deleteAll();
+        guestRepository.deleteAll();
+        roomRepository.deleteAll();
+    }
+
+    @Test
+    void listingsMatchTheDtoSerialization() throws Exception {
+        assertThat(streamed("/rooms")).isEqualTo(objectMapper.writeValueAsString(roomService.findAll()));
+        assertThat(streamed("/guests")).isEqualTo(objectMapper.writeValueAsString(guestService.findAll()));
+        assertThat(streamed("/reservations")).isEqualTo(objectMapper.writeValueAsString(reservationService.findAll()));
+    }
+
+    @Test
+    void pagesMatchTheDtoSerialization() throws Exception {
+        assertThat(page("/rooms")).isEqualTo(objectMapper.writeValueAsString(roomService.findAllAfter(0L, 1)));
+        assertThat(page("/guests")).isEqualTo(objectMapper.writeValueAsString(guestService.findAllAfter(0L, 1)));
+        assertThat(page("/reservations")).isEqualTo(objectMapper.writeValueAsString(reservationService.findAllAfter(0L, 1)));
+    }
+
+    private String streamed(String path) throws Exception {
+        MvcResult started = mockMvc.perform(get(path))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private String page(String path) throws Exception {
+        return mockMvc.perform(get(path).param("limit", "1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+}
@@ -0,0 +1,75 @@
+package com.robot.hotel.rest;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimitFilterTest {
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, Duration.ofMillis(50));
+
+    @Test
+    void rejectsRequestsThatFindNoFreeSlot() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<MockHttpServletResponse> first = CompletableFuture.supplyAsync(() -> {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            try {
+                filter.doFilter(new MockHttpServletRequest(), response, (request, ignored) -> {
+                    entered.countDown();
+                    await(release);
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            return response;
+        });
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(), rejected, (request, response) -> {
+        });
+        release.countDown();
+
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(first.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(200);
+
+        MockHttpServletResponse afterRelease = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(), afterRelease, (request, response) -> {
+        });
+        assertThat(afterRelease.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void holdsTheSlotOfAnAsyncRequestUntilItCompletes() throws Exception {
+        MockHttpServletRequest streaming = new MockHttpServletRequest();
+        streaming.setAsyncSupported(true);
+        filter.doFilter(streaming, new MockHttpServletResponse(), (request, response) -> request.startAsync());
+
+        MockHttpServletResponse whileStreaming = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(), whileStreaming, (request, response) -> {
+        });
+        assertThat(whileStreaming.getStatus()).isEqualTo(503);
+
+        streaming.getAsyncContext().complete();
+
+        MockHttpServletResponse afterCompletion = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(), afterCompletion, (request, response) -> {
+        });
+        assertThat(afterCompletion.getStatus()).isEqualTo(200);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.robot.hotel.rest;
+
+import com.robot.hotel.domain.Guest;
+import com.robot.hotel.repository.GuestRepository;
+import com.robot.hotel.service.GuestSearchIndex;
+import com.robot.hotel.service.GuestWriteBehind;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class GuestControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private GuestRepository guestRepository;
+    @Autowired
+    private GuestSearchIndex guestSearchIndex;
+    @Autowired
+    private GuestWriteBehind guestWriteBehind;
+
+    private List<Guest> guests;
+
+    @BeforeEach
+    void setUp() {
+        guests = guestRepository.saveAll(IntStream.range(0, 5)
+                .mapToObj(i -> Guest.builder().firstName("Guest" + i).lastName("Keyset").build())
+                .toList());
+    }
+
+    @AfterEach
+    void tearDown() {
+        guestRepository.deleteAll();
+    }
+
+    @Test
+    void findAllAfterReturnsNextPageById() throws Exception {
+        mockMvc.perform(get("/guests")
+                        .param("afterId", guests.get(1).getId().toString())
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].firstName").value("Guest2"))
+                .andExpect(jsonPath("$[1].firstName").value("Guest3"));
+    }
+
+    @Test
+    void findAllAfterRejectsLimitsOutsideTheAllowedRange() throws Exception {
+        mockMvc.perform(get("/guests").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/guests").param("limit", "1001"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Limit must be between 1 and 1000"));
+    }
+
+    @Test
+    void findBornBetweenRejectsPagesAndSizesOutsideTheAllowedRange() throws Exception {
+        mockMvc.perform(get("/guests/bornBetween").param("from", "1980-01-01").param("to", "2000-01-01")
+                        .param("page", "-1"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Page must not be negative"));
+        mockMvc.perform(get("/guests/bornBetween").param("from", "1980-01-01").param("to", "2000-01-01")
+                        .param("size", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/guests/bornBetween").param("from", "1980-01-01").param("to", "2000-01-01")
+                        .param("size", "1001"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Size must be between 1 and 1000"));
+        mockMvc.perform(get("/guests/bornBetween").param("from", "1980-01-01").param("to", "2000-01-01")
+                        .param("size", "1000"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void searchRanksExactTermsAboveTypos() throws Exception {
+        guestSearchIndex.rebuild();
+
+        mockMvc.perform(get("/guests/search").param("q", "guest3 keyste"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(5)))
+                .andExpect(jsonPath("$[0].firstName").value("Guest3"));
+    }
+
+    @Test
+    void patchChangesOnlyTheGivenFields() throws Exception {
+        Long id = guests.get(0).getId();
+
+        mockMvc.perform(patch("/guests/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"lastName\":\"Patched\",\"passportNumber\":\"PB42\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].updated").value(true));
+
+        assertThat(guestRepository.findById(id)).hasValueSatisfying(guest -> {
+            assertThat(guest.getFirstName()).isEqualTo("Guest0");
+            assertThat(guest.getLastName()).isEqualTo("Patched");
+            assertThat(guest.getPassportNumber()).isEqualTo("PB42");
+        });
+    }
+
+    @Test
+    void synchronousUpdateIsNotOverwrittenByAnEarlierDeferredPatch() throws Exception {
+        Long id = guests.get(0).getId();
+
+        mockMvc.perform(patch("/guests/{id}", id).param("deferred", "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"Deferred\",\"lastName\":\"Deferred\"}"))
+                .andExpect(status().isAccepted());
+        mockMvc.perform(put("/guests/{id}/lastName", id)
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("Synchronous"))
+                .andExpect(status().isOk());
+        guestWriteBehind.flush();
+
+        assertThat(guestRepository.findById(id)).hasValueSatisfying(guest -> {
+            assertThat(guest.getFirstName()).isEqualTo("Deferred");
+            assertThat(guest.getLastName()).isEqualTo("Synchronous");
+        });
+    }
+
+    @Test
+    void deleteDropsTheGuestsDeferredPatch() throws Exception {
+        Long id = guests.get(0).getId();
+
+        mockMvc.perform(patch("/guests/{id}", id).param("deferred", "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"lastName\":\"Deferred\"}"))
+                .andExpect(status().isAccepted());
+        mockMvc.perform(delete("/guests/{id}", id))
+                .andExpect(status().isOk());
+
+        assertThat(guestWriteBehind.pendingGuests()).isZero();
+    }
+
+    @Test
+    void streamAllWritesOneJsonLinePerGuest() throws Exception {
+        MvcResult started = mockMvc.perform(get("/guests").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(body.lines()).hasSize(5).allSatisfy(line -> assertThat(line).startsWith("{").contains("Keyset"));
+    }
+}
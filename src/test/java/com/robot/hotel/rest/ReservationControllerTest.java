@@ -0,0 +1,34 @@
+package com.robot.hotel.rest;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReservationControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void findAllPagedRejectsPagesAndSizesOutsideTheAllowedRange() throws Exception {
+        mockMvc.perform(get("/reservations").param("page", "-1"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Page must not be negative"));
+        mockMvc.perform(get("/reservations").param("page", "0").param("size", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/reservations").param("page", "0").param("size", "1001"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Size must be between 1 and 1000"));
+        mockMvc.perform(get("/reservations").param("page", "0").param("size", "1000"))
+                .andExpect(status().isOk());
+    }
+}
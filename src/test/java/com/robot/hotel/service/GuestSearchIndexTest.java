@@ -0,0 +1,121 @@
+package com.robot.hotel.service;
+
+import com.robot.hotel.domain.Guest;
+import com.robot.hotel.repository.GuestRepository;
+import com.robot.hotel.repository.GuestRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GuestSearchIndexTest {
+    private final GuestRepository guestRepository = mock(GuestRepository.class);
+    private final GuestSearchIndex index = new GuestSearchIndex(guestRepository, mock(PlatformTransactionManager.class));
+
+    @BeforeEach
+    void setUp() {
+        index.put(guest(1L, "Anna", "Smith", "PB1001"));
+        index.put(guest(2L, "John", "Smithers", "PB1002"));
+        index.put(guest(3L, "José", "Álvarez", "XK2001"));
+        index.put(guest(4L, "Anna", "Schmidt", "XK2002"));
+    }
+
+    @Test
+    void ranksExactTermsBeforePrefixes() {
+        assertThat(index.search("smith", false, 0, 10)).extracting(GuestRow::id).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void requiresEveryTermAndIgnoresCaseAndAccents() {
+        assertThat(index.search("ANNA sm", false, 0, 10)).extracting(GuestRow::id).containsExactly(1L);
+        assertThat(index.search("jose alv", false, 0, 10)).extracting(GuestRow::id).containsExactly(3L);
+        assertThat(index.search("xk", false, 0, 10)).extracting(GuestRow::id).containsExactlyInAnyOrder(3L, 4L);
+    }
+
+    @Test
+    void toleratesTyposOnlyWhenFuzzy() {
+        assertThat(index.search("smtih", false, 0, 10)).isEmpty();
+        assertThat(index.search("smtih", true, 0, 10)).extracting(GuestRow::id).containsExactly(1L, 2L);
+        assertThat(index.search("schmitd", true, 0, 10)).extracting(GuestRow::id).containsExactly(4L);
+    }
+
+    @Test
+    void prunesFuzzyCandidatesSharingTooFewTrigrams() {
+        index.put(guest(5L, "Sandy", "Smyth", "QR3001"));
+        index.put(guest(6L, "Kevin", "Jones", "QR3002"));
+
+        assertThat(index.fuzzyCandidates("smith")).contains("smith", "smithers", "smyth")
+                .doesNotContain("sandy", "jones", "kevin");
+        assertThat(index.search("smith", true, 0, 10)).extracting(GuestRow::id).containsExactly(1L, 2L, 5L);
+    }
+
+    @Test
+    void pagesThroughRankedResults() {
+        assertThat(index.search("anna", false, 0, 1)).extracting(GuestRow::id).containsExactly(4L);
+        assertThat(index.search("anna", false, 1, 1)).extracting(GuestRow::id).containsExactly(1L);
+        assertThat(index.search("anna", false, 2, 1)).isEmpty();
+    }
+
+    @Test
+    void updatesReplaceAndRemoveTerms() {
+        index.put(guest(1L, "Anna", "Jones", "PB1001"));
+        index.remove(2L);
+
+        assertThat(index.search("smith", true, 0, 10)).isEmpty();
+        assertThat(index.search("jones", false, 0, 10)).extracting(GuestRow::id).containsExactly(1L);
+    }
+
+    @Test
+    void rejectsQueriesWithoutTerms() {
+        assertThatThrownBy(() -> index.search(" - ", false, 0, 10)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rebuildLoadsGuestsFromRepository() {
+        when(guestRepository.streamRows()).thenReturn(Stream.of(
+                new GuestRow(9L, "Maria", "Rossi", null, null, "IT9")));
+
+        index.rebuild();
+
+        assertThat(index.search("smith", false, 0, 10)).isEmpty();
+        assertThat(index.search("ross", false, 0, 10)).extracting(GuestRow::id).containsExactly(9L);
+    }
+
+    @Test
+    void rebuildKeepsServingTheOldIndexAndReplaysChangesMadeMeanwhile() {
+        when(guestRepository.streamRows()).thenAnswer(invocation -> Stream.of(
+                        new GuestRow(9L, "Maria", "Rossi", null, null, "IT9"),
+                        new GuestRow(10L, "Luca", "Bianchi", null, null, "IT10"))
+                .peek(row -> {
+                    if (row.id() == 9L) {
+                        assertThat(index.search("smith", false, 0, 10)).extracting(GuestRow::id).containsExactly(1L, 2L);
+                        index.put(guest(11L, "Marco", "Verdi", "IT11"));
+                        index.remove(10L);
+                    }
+                }));
+
+        index.rebuild();
+
+        assertThat(index.search("smith", false, 0, 10)).isEmpty();
+        assertThat(index.search("ross", false, 0, 10)).extracting(GuestRow::id).containsExactly(9L);
+        assertThat(index.search("verdi", false, 0, 10)).extracting(GuestRow::id).containsExactly(11L);
+        assertThat(index.search("bianchi", false, 0, 10)).isEmpty();
+    }
+
+    @Test
+    void editDistanceCountsTranspositionsAsOneEdit() {
+        assertThat(GuestSearchIndex.editDistance("smtih", "smith", 2)).isEqualTo(1);
+        assertThat(GuestSearchIndex.editDistance("kitten", "sitting", 3)).isEqualTo(3);
+        assertThat(GuestSearchIndex.editDistance("kitten", "sitting", 1)).isEqualTo(2);
+    }
+
+    private static Guest guest(Long id, String firstName, String lastName, String passportNumber) {
+        return Guest.builder().id(id).firstName(firstName).lastName(lastName).passportNumber(passportNumber).build();
+    }
+}
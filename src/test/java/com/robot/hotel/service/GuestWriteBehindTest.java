@@ -0,0 +1,109 @@
+package com.robot.hotel.service;
+
+import com.robot.hotel.dto.GuestPatch;
+import com.robot.hotel.dto.PatchResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GuestWriteBehindTest {
+    private final GuestService guestService = mock(GuestService.class);
+    private final GuestWriteBehindProperties properties = new GuestWriteBehindProperties();
+    private GuestWriteBehind writeBehind;
+
+    @BeforeEach
+    void setUp() {
+        properties.setCapacity(2);
+        properties.setBatchSize(1);
+        properties.setOfferTimeout(Duration.ofMillis(10));
+        writeBehind = new GuestWriteBehind(guestService, properties);
+        when(guestService.patchQueued(anyList())).thenReturn(List.of(PatchResult.builder().updated(true).build()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void mergesPendingPatchesForTheSameGuest() {
+        writeBehind.offer(List.of(GuestPatch.builder().id(1L).firstName("Ann").lastName("Lee").build()));
+        writeBehind.offer(List.of(GuestPatch.builder().id(1L).firstName("Anna").passportNumber("PB1").build()));
+
+        assertThat(writeBehind.pendingGuests()).isEqualTo(1);
+        writeBehind.flush();
+
+        ArgumentCaptor<List<GuestPatch>> batch = ArgumentCaptor.forClass(List.class);
+        verify(guestService).patchQueued(batch.capture());
+        assertThat(batch.getValue()).containsExactly(
+                GuestPatch.builder().id(1L).firstName("Anna").lastName("Lee").passportNumber("PB1").build());
+    }
+
+    @Test
+    void flushesInBatches() {
+        writeBehind.offer(List.of(GuestPatch.builder().id(1L).lastName("Lee").build(),
+                GuestPatch.builder().id(2L).lastName("Kim").build()));
+
+        writeBehind.flush();
+
+        verify(guestService, times(2)).patchQueued(anyList());
+        assertThat(writeBehind.pendingGuests()).isZero();
+    }
+
+    @Test
+    void rejectsOffersWhileFull() {
+        writeBehind.offer(List.of(GuestPatch.builder().id(1L).lastName("Lee").build(),
+                GuestPatch.builder().id(2L).lastName("Kim").build()));
+
+        assertThatThrownBy(() -> writeBehind.offer(List.of(GuestPatch.builder().id(3L).lastName("Roe").build())))
+                .isInstanceOf(RejectedExecutionException.class);
+        writeBehind.offer(List.of(GuestPatch.builder().id(2L).firstName("Jin").build()));
+        assertThat(writeBehind.pendingGuests()).isEqualTo(2);
+    }
+
+    @Test
+    void takeRemovesTheGuestsPendingPatch() {
+        writeBehind.offer(List.of(GuestPatch.builder().id(1L).lastName("Lee").build(),
+                GuestPatch.builder().id(2L).lastName("Kim").build()));
+
+        assertThat(writeBehind.take(1L)).contains(GuestPatch.builder().id(1L).lastName("Lee").build());
+        assertThat(writeBehind.take(1L)).isEmpty();
+        writeBehind.offer(List.of(GuestPatch.builder().id(3L).lastName("Roe").build()));
+        assertThat(writeBehind.pendingGuests()).isEqualTo(2);
+    }
+
+    @Test
+    void closeFlushesAndStopsAccepting() {
+        writeBehind.offer(List.of(GuestPatch.builder().id(1L).lastName("Lee").build()));
+
+        writeBehind.close();
+
+        verify(guestService).patchQueued(anyList());
+        assertThatThrownBy(() -> writeBehind.offer(List.of(GuestPatch.builder().id(2L).lastName("Kim").build())))
+                .isInstanceOf(RejectedExecutionException.class);
+    }
+
+    @Test
+    void retriesAFailedBatchOneGuestAtATime() {
+        properties.setBatchSize(2);
+        when(guestService.patchQueued(anyList()))
+                .thenThrow(new IllegalStateException("duplicate passport"))
+                .thenThrow(new IllegalStateException("duplicate passport"))
+                .thenReturn(List.of(PatchResult.builder().updated(true).build()));
+        writeBehind.offer(List.of(GuestPatch.builder().id(1L).passportNumber("PB1").build(),
+                GuestPatch.builder().id(2L).lastName("Kim").build()));
+
+        writeBehind.flush();
+
+        verify(guestService, times(3)).patchQueued(anyList());
+        assertThat(writeBehind.pendingGuests()).isZero();
+    }
+}
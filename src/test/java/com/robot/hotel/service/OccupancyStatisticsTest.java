@@ -0,0 +1,177 @@
+package com.robot.hotel.service;
+
+import com.robot.hotel.domain.Guest;
+import com.robot.hotel.domain.Reservation;
+import com.robot.hotel.domain.ReservationStatus;
+import com.robot.hotel.domain.Room;
+import com.robot.hotel.domain.RoomType;
+import com.robot.hotel.dto.OccupancyStatsDto;
+import com.robot.hotel.dto.RoomPatch;
+import com.robot.hotel.repository.GuestRepository;
+import com.robot.hotel.repository.ReservationRepository;
+import com.robot.hotel.repository.RoomRepository;
+import com.robot.hotel.repository.StayRevenue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class OccupancyStatisticsTest {
+    private static final LocalDate JUNE_1 = LocalDate.of(2031, 6, 1);
+
+    @Autowired
+    private ReservationService reservationService;
+    @Autowired
+    private RoomService roomService;
+    @Autowired
+    private OccupancyStatistics occupancyStatistics;
+    @Autowired
+    private RoomAvailabilityIndex roomAvailabilityIndex;
+    @Autowired
+    private ReservationRepository reservationRepository;
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private GuestRepository guestRepository;
+
+    @AfterEach
+    void tearDown() {
+        List<Guest> guests = guestRepository.findAll();
+        guests.forEach(guest -> {
+            guest.setReservation(null);
+            guest.setRoom(null);
+        });
+        guestRepository.saveAll(guests);
+        reservationRepository.deleteAll();
+        guestRepository.deleteAll();
+        roomRepository.deleteAll();
+        roomAvailabilityIndex.rebuild();
+        occupancyStatistics.rebuild();
+    }
+
+    @Test
+    void followsReservationChangesAndMatchesRebuild() {
+        Room standard = roomRepository.save(Room.builder().roomNumber(501).roomType(RoomType.LOFT).pricePerNight(120).maxNumberOfGuests(3).isAvailable(true).build());
+        Room premium = roomRepository.save(Room.builder().roomNumber(502).roomType(RoomType.LOFT).pricePerNight(200).maxNumberOfGuests(3).isAvailable(true).build());
+        Guest first = guestRepository.save(Guest.builder().firstName("Ada").lastName("Stats").build());
+        Guest second = guestRepository.save(Guest.builder().firstName("Bo").lastName("Stats").build());
+
+        Reservation reservation = Reservation.builder().checkinDate(JUNE_1).checkoutDate(JUNE_1.plusDays(2)).status(ReservationStatus.RESERVED).build();
+        reservationService.createReservation(reservation, List.of(first.getId()), standard.getId());
+
+        assertThat(roomService.findOccupancyStats(JUNE_1, JUNE_1.plusDays(3), RoomType.LOFT))
+                .extracting(OccupancyStatsDto::getRooms, OccupancyStatsDto::getRoomsSold, OccupancyStatsDto::getGuests,
+                        OccupancyStatsDto::getRevenue, OccupancyStatsDto::getOccupancyRate, OccupancyStatsDto::getRevenuePerAvailableRoom)
+                .containsExactly(
+                        tuple(2L, 1L, 1L, 120.0, 0.5, 60.0),
+                        tuple(2L, 1L, 1L, 120.0, 0.5, 60.0),
+                        tuple(2L, 0L, 0L, 0.0, 0.0, 0.0));
+
+        reservationService.addGuestsToReservation(reservation.getId(), List.of(second.getId()));
+        reservationService.moveGuestToRoom(first.getId(), standard.getId(), premium.getId());
+
+        List<OccupancyStatsDto> incremental = roomService.findOccupancyStats(JUNE_1, JUNE_1.plusDays(3), RoomType.LOFT);
+        assertThat(incremental)
+                .extracting(OccupancyStatsDto::getRoomsSold, OccupancyStatsDto::getGuests,
+                        OccupancyStatsDto::getRevenue, OccupancyStatsDto::getAverageDailyRate)
+                .containsExactly(
+                        tuple(1L, 2L, 200.0, 200.0),
+                        tuple(1L, 2L, 200.0, 200.0),
+                        tuple(0L, 0L, 0.0, 0.0));
+
+        occupancyStatistics.rebuild();
+
+        assertThat(roomService.findOccupancyStats(JUNE_1, JUNE_1.plusDays(3), RoomType.LOFT)).isEqualTo(incremental);
+
+        // Removing the last guest deletes the reservation.
+        reservationService.removeGuestsFromReservation(reservation.getId(), List.of(first.getId(), second.getId()));
+
+        assertThat(roomService.findOccupancyStats(JUNE_1, JUNE_1.plusDays(3), null))
+                .allSatisfy(night -> assertThat(night.getRoomsSold()).isZero())
+                .allSatisfy(night -> assertThat(night.getRevenue()).isZero());
+        assertThat(occupancyStatistics.between(JUNE_1, JUNE_1.plusDays(3)).values())
+                .allSatisfy(totals -> assertThat(totals).isEmpty());
+    }
+
+    @Test
+    void roomEditsRekeyCountedStaysSoCancellationsCancelOut() {
+        Room room = roomRepository.save(Room.builder().roomNumber(503).roomType(RoomType.LOFT).pricePerNight(120).maxNumberOfGuests(3).isAvailable(true).build());
+        Guest guest = guestRepository.save(Guest.builder().firstName("Cy").lastName("Stats").build());
+        Reservation reservation = Reservation.builder().checkinDate(JUNE_1).checkoutDate(JUNE_1.plusDays(2)).status(ReservationStatus.RESERVED).build();
+        reservationService.createReservation(reservation, List.of(guest.getId()), room.getId());
+
+        roomService.updatePricePerNight(room.getId(), 150);
+        roomService.patchRooms(List.of(RoomPatch.builder().id(room.getId()).roomType(RoomType.STUDIO).build()));
+
+        List<OccupancyStatsDto> incremental = roomService.findOccupancyStats(JUNE_1, JUNE_1.plusDays(2), null);
+        assertThat(incremental).filteredOn(night -> night.getRoomsSold() > 0)
+                .extracting(OccupancyStatsDto::getRoomType, OccupancyStatsDto::getRevenue)
+                .containsExactly(tuple(RoomType.STUDIO, 150.0), tuple(RoomType.STUDIO, 150.0));
+        occupancyStatistics.rebuild();
+        assertThat(roomService.findOccupancyStats(JUNE_1, JUNE_1.plusDays(2), null)).isEqualTo(incremental);
+
+        reservationService.removeGuestsFromReservation(reservation.getId(), List.of(guest.getId()));
+
+        assertThat(occupancyStatistics.between(JUNE_1, JUNE_1.plusDays(2)).values())
+                .allSatisfy(totals -> assertThat(totals).isEmpty());
+    }
+
+    @Test
+    void rebuildKeepsChangesAppliedWhileItRuns() {
+        ReservationRepository repository = mock(ReservationRepository.class);
+        OccupancyStatistics statistics = new OccupancyStatistics(repository, mock(PlatformTransactionManager.class));
+        Room room = Room.builder().roomType(RoomType.LOFT).pricePerNight(100.0).build();
+        Reservation committedDuringRebuild = Reservation.builder().room(room).checkinDate(JUNE_1).checkoutDate(JUNE_1.plusDays(1))
+                .guests(List.of(Guest.builder().build())).build();
+        when(repository.streamStayRevenue()).thenAnswer(invocation -> Stream.of(
+                        new StayRevenue(RoomType.LOFT, 100.0, JUNE_1, JUNE_1.plusDays(1), 1))
+                .peek(stay -> statistics.add(committedDuringRebuild)));
+
+        statistics.rebuild();
+
+        assertThat(statistics.between(JUNE_1, JUNE_1.plusDays(1)).get(JUNE_1))
+                .containsEntry(RoomType.LOFT, new OccupancyStatistics.Totals(2, 20000, 2));
+    }
+
+    @Test
+    void rejectsRangesLongerThanTheLimit() {
+        assertThatNoException()
+                .isThrownBy(() -> roomService.findOccupancyStats(JUNE_1, JUNE_1.plusDays(RoomService.MAX_STATS_NIGHTS), null));
+        assertThatThrownBy(() -> roomService.findOccupancyStats(JUNE_1, JUNE_1.plusDays(RoomService.MAX_STATS_NIGHTS + 1), null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rebuildSumsSlicesTalliedInParallel() {
+        Room room = roomRepository.save(Room.builder().roomNumber(503).roomType(RoomType.STUDIO).pricePerNight(99.99).maxNumberOfGuests(2).isAvailable(true).build());
+        Guest guest = guestRepository.save(Guest.builder().firstName("Cy").lastName("Stats").build());
+        List<Reservation> reservations = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            reservations.add(Reservation.builder().room(room).checkinDate(JUNE_1.plusDays(i % 10))
+                    .checkoutDate(JUNE_1.plusDays(i % 10 + 1)).status(ReservationStatus.RESERVED).guests(List.of(guest)).build());
+        }
+        reservationRepository.saveAll(reservations);
+
+        occupancyStatistics.rebuild();
+
+        assertThat(roomService.findOccupancyStats(JUNE_1, JUNE_1.plusDays(10), RoomType.STUDIO))
+                .extracting(OccupancyStatsDto::getRoomsSold, OccupancyStatsDto::getGuests, OccupancyStatsDto::getRevenue)
+                .containsOnly(tuple(2000L, 2000L, 199980.0));
+    }
+}
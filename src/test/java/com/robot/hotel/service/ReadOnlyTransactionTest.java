@@ -0,0 +1,78 @@
+package com.robot.hotel.service;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ReadOnlyTransactionTest {
+    @Autowired
+    private SessionProbe sessionProbe;
+    @Autowired
+    private ReadWriteCaller readWriteCaller;
+
+    @Test
+    void readsRunReadOnlyWithManualFlush() {
+        assertThat(sessionProbe.readOnly()).isEqualTo("read-only MANUAL");
+    }
+
+    @Test
+    void readsJoinEnclosingReadWriteTransaction() {
+        assertThat(readWriteCaller.read()).isEqualTo("read-write AUTO");
+    }
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        SessionProbe sessionProbe(EntityManager entityManager) {
+            return new SessionProbe(entityManager);
+        }
+
+        @Bean
+        ReadWriteCaller readWriteCaller(SessionProbe sessionProbe) {
+            return new ReadWriteCaller(sessionProbe);
+        }
+    }
+
+    static class SessionProbe {
+        private final EntityManager entityManager;
+
+        SessionProbe(EntityManager entityManager) {
+            this.entityManager = entityManager;
+        }
+
+        @ReadOnlyTransaction
+        public String readOnly() {
+            return describe();
+        }
+
+        private String describe() {
+            FlushMode flushMode = entityManager.unwrap(Session.class).getHibernateFlushMode();
+            return (TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? "read-only " : "read-write ") + flushMode;
+        }
+    }
+
+    static class ReadWriteCaller {
+        private final SessionProbe sessionProbe;
+
+        ReadWriteCaller(SessionProbe sessionProbe) {
+            this.sessionProbe = sessionProbe;
+        }
+
+        @Transactional
+        public String read() {
+            return sessionProbe.readOnly();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.robot.hotel.service;
+
+import com.robot.hotel.domain.Guest;
+import com.robot.hotel.domain.Reservation;
+import com.robot.hotel.domain.ReservationStatus;
+import com.robot.hotel.domain.Room;
+import com.robot.hotel.domain.RoomType;
+import com.robot.hotel.dto.ReservationBatchItem;
+import com.robot.hotel.dto.ReservationBatchResult;
+import com.robot.hotel.repository.GuestRepository;
+import com.robot.hotel.repository.ReservationRepository;
+import com.robot.hotel.repository.RoomRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ReservationBatchImportTest {
+    private static final LocalDate MAY_1 = LocalDate.of(2024, 5, 1);
+
+    @Autowired
+    private ReservationService reservationService;
+    @Autowired
+    private RoomAvailabilityIndex roomAvailabilityIndex;
+    @Autowired
+    private ReservationRepository reservationRepository;
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private GuestRepository guestRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void tearDown() {
+        List<Guest> guests = guestRepository.findAll();
+        guests.forEach(guest -> {
+            guest.setReservation(null);
+            guest.setRoom(null);
+        });
+        guestRepository.saveAll(guests);
+        reservationRepository.deleteAll();
+        guestRepository.deleteAll();
+        roomRepository.deleteAll();
+        roomAvailabilityIndex.rebuild();
+    }
+
+    @Test
+    void validatesItemsAgainstEachOtherAndTheDatabase() {
+        Room twin = roomRepository.save(Room.builder().roomNumber(301).roomType(RoomType.TWIN).maxNumberOfGuests(2).build());
+        Room single = roomRepository.save(Room.builder().roomNumber(302).roomType(RoomType.SINGLE).maxNumberOfGuests(1).build());
+        reservationRepository.save(Reservation.builder().room(twin)
+                .checkinDate(MAY_1).checkoutDate(MAY_1.plusDays(3)).status(ReservationStatus.RESERVED).build());
+        List<Long> guestIds = guests(5);
+
+        List<ReservationBatchResult> results = reservationService.importReservations(List.of(
+                item(twin, MAY_1.plusDays(3), MAY_1.plusDays(5), guestIds.get(0)),
+                item(twin, MAY_1.plusDays(4), MAY_1.plusDays(6), guestIds.get(1)),
+                item(twin, MAY_1.plusDays(1), MAY_1.plusDays(2), guestIds.get(2)),
+                item(single, MAY_1, MAY_1.plusDays(2), guestIds.get(3), guestIds.get(4)),
+                ReservationBatchItem.builder().roomId(-1L).checkinDate(MAY_1).checkoutDate(MAY_1.plusDays(1))
+                        .guestIds(List.of(guestIds.get(4))).build(),
+                item(single, MAY_1, MAY_1.plusDays(2), guestIds.get(3))));
+
+        assertThat(results).extracting(ReservationBatchResult::isCreated)
+                .containsExactly(true, false, false, false, false, true);
+        assertThat(results.get(1).getError()).isEqualTo("The room is not available for these dates.");
+        assertThat(results.get(2).getError()).isEqualTo("The room is not available for these dates.");
+        assertThat(results.get(3).getError()).startsWith("The maximum number of guests");
+        assertThat(results.get(4).getError()).startsWith("Invalid room ID");
+        assertThat(results.get(0).getReservationId()).isNotNull();
+        assertThat(reservationRepository.count()).isEqualTo(3);
+        assertThat(roomAvailabilityIndex.isAvailable(single.getId(), MAY_1, MAY_1.plusDays(1))).isFalse();
+    }
+
+    @Test
+    void rejectsItemsThatRepeatAGuest() {
+        Room twin = roomRepository.save(Room.builder().roomNumber(303).roomType(RoomType.TWIN).maxNumberOfGuests(2).build());
+        List<Long> guestIds = guests(1);
+
+        List<ReservationBatchResult> results = reservationService.importReservations(List.of(
+                item(twin, MAY_1, MAY_1.plusDays(2), guestIds.get(0), guestIds.get(0))));
+
+        assertThat(results).extracting(ReservationBatchResult::isCreated).containsExactly(false);
+        assertThat(results.get(0).getError()).isEqualTo("Duplicate guest IDs");
+        assertThat(reservationRepository.count()).isZero();
+    }
+
+    @Test
+    void insertsAcceptedReservationsInJdbcBatches() {
+        int count = 200;
+        List<Room> rooms = roomRepository.saveAll(IntStream.range(0, count)
+                .mapToObj(i -> Room.builder().roomNumber(1000 + i).roomType(RoomType.SINGLE).maxNumberOfGuests(1).build())
+                .toList());
+        List<Long> guestIds = guests(count);
+        List<ReservationBatchItem> items = IntStream.range(0, count)
+                .mapToObj(i -> item(rooms.get(i), MAY_1, MAY_1.plusDays(2), guestIds.get(i)))
+                .toList();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<ReservationBatchResult> results = reservationService.importReservations(items);
+
+        assertThat(results).allMatch(ReservationBatchResult::isCreated);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(count);
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(count / 4);
+    }
+
+    private List<Long> guests(int count) {
+        return guestRepository.saveAll(IntStream.range(0, count)
+                        .mapToObj(i -> Guest.builder().firstName("Guest" + i).lastName("Import").build())
+                        .toList())
+                .stream()
+                .map(Guest::getId)
+                .toList();
+    }
+
+    private static ReservationBatchItem item(Room room, LocalDate checkin, LocalDate checkout, Long... guestIds) {
+        return ReservationBatchItem.builder()
+                .roomId(room.getId())
+                .checkinDate(checkin)
+                .checkoutDate(checkout)
+                .status(ReservationStatus.RESERVED)
+                .guestIds(List.of(guestIds))
+                .build();
+    }
+}
@@ -0,0 +1,90 @@
+package com.robot.hotel.service;
+
+import com.robot.hotel.domain.Reservation;
+import com.robot.hotel.domain.ReservationStatus;
+import com.robot.hotel.domain.Room;
+import com.robot.hotel.domain.RoomType;
+import com.robot.hotel.dto.LifecycleRunDto;
+import com.robot.hotel.repository.ReservationRepository;
+import com.robot.hotel.repository.RoomNightRepository;
+import com.robot.hotel.repository.RoomRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "hotel.lifecycle.chunk-size=2")
+@ActiveProfiles("test")
+class ReservationLifecycleTest {
+    private static final LocalDate JUNE_10 = LocalDate.of(2024, 6, 10);
+
+    @Autowired
+    private ReservationLifecycle reservationLifecycle;
+    @Autowired
+    private ReservationRepository reservationRepository;
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private RoomNightRepository roomNightRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        reservationRepository.deleteAll();
+        roomRepository.deleteAll();
+    }
+
+    @Test
+    void movesDueReservationsAndRecomputesRoomAvailability() {
+        Room ended = room(501, false);
+        Room staying = room(502, true);
+        Room upcoming = room(503, false);
+        Room empty = room(504, true);
+
+        Reservation past = reservation(ended, JUNE_10.minusDays(3), JUNE_10, ReservationStatus.RESERVED);
+        Reservation cancelled = reservation(ended, JUNE_10.minusDays(5), JUNE_10.minusDays(4), ReservationStatus.CANCELLED);
+        Reservation current = reservation(staying, JUNE_10.minusDays(1), JUNE_10.plusDays(2), ReservationStatus.RESERVED);
+        Reservation future = reservation(upcoming, JUNE_10.plusDays(1), JUNE_10.plusDays(3), ReservationStatus.RESERVED);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> roomNightRepository.insertNights(
+                List.of(past.getId(), cancelled.getId(), current.getId(), future.getId())));
+
+        LifecycleRunDto result = reservationLifecycle.run(JUNE_10);
+
+        assertThat(result.getCompleted()).isEqualTo(1);
+        assertThat(result.getCheckedIn()).isEqualTo(1);
+        assertThat(result.getRoomsOccupied()).isEqualTo(1);
+        assertThat(result.getRoomsFreed()).isEqualTo(2);
+        assertThat(status(past)).isEqualTo(ReservationStatus.COMPLETED);
+        assertThat(status(cancelled)).isEqualTo(ReservationStatus.CANCELLED);
+        assertThat(status(current)).isEqualTo(ReservationStatus.CHECKED_IN);
+        assertThat(status(future)).isEqualTo(ReservationStatus.RESERVED);
+        assertThat(roomRepository.findRowsByIsAvailable(true)).extracting(room -> room.roomNumber())
+                .containsExactlyInAnyOrder(501, 503, 504);
+
+        LifecycleRunDto again = reservationLifecycle.run(JUNE_10);
+
+        assertThat(List.of(again.getCompleted(), again.getCheckedIn(), again.getRoomsOccupied(), again.getRoomsFreed()))
+                .containsOnly(0L);
+    }
+
+    private Room room(int number, boolean available) {
+        return roomRepository.save(Room.builder().roomNumber(number).roomType(RoomType.TWIN).maxNumberOfGuests(2).isAvailable(available).build());
+    }
+
+    private Reservation reservation(Room room, LocalDate checkinDate, LocalDate checkoutDate, ReservationStatus status) {
+        return reservationRepository.save(Reservation.builder().room(room).checkinDate(checkinDate).checkoutDate(checkoutDate).status(status).build());
+    }
+
+    private ReservationStatus status(Reservation reservation) {
+        return reservationRepository.findById(reservation.getId()).orElseThrow().getStatus();
+    }
+}
@@ -0,0 +1,210 @@
+package com.robot.hotel.service;
+
+import com.robot.hotel.domain.Guest;
+import com.robot.hotel.domain.Reservation;
+import com.robot.hotel.domain.ReservationStatus;
+import com.robot.hotel.domain.Room;
+import com.robot.hotel.domain.RoomType;
+import com.robot.hotel.dto.ReservationBatchItem;
+import com.robot.hotel.repository.GuestRepository;
+import com.robot.hotel.repository.ReservationRepository;
+import com.robot.hotel.repository.RoomNightRepository;
+import com.robot.hotel.repository.RoomRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ReservationServiceConcurrencyTest {
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_ROOM = 8;
+    private static final LocalDate CHECKIN = LocalDate.of(2024, 7, 1);
+
+    @Autowired
+    private ReservationService reservationService;
+    @Autowired
+    private ReservationRepository reservationRepository;
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private GuestRepository guestRepository;
+    @Autowired
+    private RoomNightRepository roomNightRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        List<Guest> guests = guestRepository.findAll();
+        guests.forEach(guest -> {
+            guest.setReservation(null);
+            guest.setRoom(null);
+        });
+        guestRepository.saveAll(guests);
+        reservationRepository.deleteAll();
+        guestRepository.deleteAll();
+        roomRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentBookingsOfOneRoomNeverDoubleBook() throws Exception {
+        int booked = book(1, THREADS);
+
+        assertThat(booked).isEqualTo(1);
+        assertThat(reservationRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentBookingsOfManyRoomsBookEachRoomOnce() throws Exception {
+        int rooms = THREADS * 4;
+        int booked = book(rooms, rooms * ATTEMPTS_PER_ROOM);
+
+        assertThat(booked).isEqualTo(rooms);
+        assertThat(reservationRepository.count()).isEqualTo(rooms);
+    }
+
+    /**
+     * One room's row lock is held by another transaction for the whole booking of a second
+     * room, which would otherwise fail on the lock timeout.
+     */
+    @Test
+    void lockedRoomDoesNotHoldUpBookingsOfOtherRooms() throws Exception {
+        Room locked = roomRepository.save(Room.builder()
+                .roomNumber(900).roomType(RoomType.DOUBLE).maxNumberOfGuests(2).isAvailable(true).build());
+        Room free = roomRepository.save(Room.builder()
+                .roomNumber(901).roomType(RoomType.DOUBLE).maxNumberOfGuests(2).isAvailable(true).build());
+        Long guestId = guests(1).get(0).getId();
+        CountDownLatch lockHeld = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> holder = executor.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            roomRepository.findByIdForUpdate(locked.getId());
+            lockHeld.countDown();
+            try {
+                release.await(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        try {
+            assertThat(lockHeld.await(1, TimeUnit.MINUTES)).isTrue();
+            Reservation reservation = Reservation.builder()
+                    .checkinDate(CHECKIN).checkoutDate(CHECKIN.plusDays(3)).status(ReservationStatus.RESERVED).build();
+
+            reservationService.createReservation(reservation, List.of(guestId), free.getId());
+
+            assertThat(holder).isNotDone();
+            assertThat(reservationRepository.count()).isEqualTo(1);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+        holder.get(1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Imports check dates only, so the room stays bookable and every attempt reaches the
+     * row lock and the overlap check. Each stay overlaps its neighbours by one night.
+     */
+    @Test
+    void concurrentOverlappingStaysOfOneRoomNeverShareANight() throws Exception {
+        Room room = roomRepository.save(Room.builder()
+                .roomNumber(900).roomType(RoomType.DOUBLE).maxNumberOfGuests(2).isAvailable(true).build());
+        List<Guest> guests = guests(THREADS);
+
+        int booked = race(THREADS, i -> {
+            LocalDate checkin = CHECKIN.plusDays(2L * i);
+            ReservationBatchItem item = ReservationBatchItem.builder()
+                    .checkinDate(checkin).checkoutDate(checkin.plusDays(3)).status(ReservationStatus.RESERVED)
+                    .roomId(room.getId()).guestIds(List.of(guests.get(i).getId())).build();
+            return reservationService.importReservations(List.of(item)).get(0).isCreated();
+        });
+
+        List<Reservation> stays = reservationRepository.findAll();
+        assertThat(stays).hasSize(booked).isNotEmpty();
+        for (Reservation stay : stays) {
+            assertThat(stays).filteredOn(other -> !other.getId().equals(stay.getId())
+                            && other.getCheckinDate().isBefore(stay.getCheckoutDate())
+                            && stay.getCheckinDate().isBefore(other.getCheckoutDate()))
+                    .isEmpty();
+        }
+        assertThat(roomNightRepository.count()).isEqualTo(3L * booked);
+    }
+
+    private int book(int roomCount, int attempts) throws Exception {
+        List<Room> rooms = new ArrayList<>();
+        for (int i = 0; i < roomCount; i++) {
+            rooms.add(roomRepository.save(Room.builder()
+                    .roomNumber(900 + i).roomType(RoomType.DOUBLE).maxNumberOfGuests(2).isAvailable(true).build()));
+        }
+        List<Guest> guests = guests(attempts);
+
+        return race(attempts, i -> {
+            Reservation reservation = Reservation.builder()
+                    .checkinDate(CHECKIN).checkoutDate(CHECKIN.plusDays(3)).status(ReservationStatus.RESERVED).build();
+            reservationService.createReservation(reservation, List.of(guests.get(i).getId()), rooms.get(i % roomCount).getId());
+            return true;
+        });
+    }
+
+    private List<Guest> guests(int count) {
+        List<Guest> guests = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            guests.add(guestRepository.save(Guest.builder().firstName("Guest" + i).lastName("Race").build()));
+        }
+        return guests;
+    }
+
+    /**
+     * Starts all attempts at once on {@link #THREADS} threads and counts the successful ones;
+     * an attempt rejected with {@link IllegalStateException} counts as unsuccessful.
+     */
+    private int race(int attempts, Attempt attempt) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < attempts; i++) {
+            int index = i;
+            results.add(executor.submit(() -> {
+                start.await();
+                try {
+                    return attempt.run(index);
+                } catch (IllegalStateException e) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+
+        int succeeded = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                succeeded++;
+            }
+        }
+        return succeeded;
+    }
+
+    private interface Attempt {
+        boolean run(int index);
+    }
+}
@@ -0,0 +1,108 @@
+package com.robot.hotel.service;
+
+import com.robot.hotel.domain.Guest;
+import com.robot.hotel.domain.Reservation;
+import com.robot.hotel.domain.ReservationStatus;
+import com.robot.hotel.domain.Room;
+import com.robot.hotel.domain.RoomType;
+import com.robot.hotel.dto.ReservationDto;
+import com.robot.hotel.repository.GuestRepository;
+import com.robot.hotel.repository.ReservationRepository;
+import com.robot.hotel.repository.RoomRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ReservationServiceQueryCountTest {
+    private static final int RESERVATIONS = 12;
+
+    @Autowired
+    private ReservationService reservationService;
+    @Autowired
+    private ReservationRepository reservationRepository;
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private GuestRepository guestRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        LocalDate checkin = LocalDate.of(2024, 5, 1);
+        for (int i = 0; i < RESERVATIONS; i++) {
+            Room room = roomRepository.save(Room.builder().roomNumber(500 + i).roomType(RoomType.DOUBLE).maxNumberOfGuests(2).build());
+            List<Guest> guests = guestRepository.saveAll(List.of(
+                    Guest.builder().firstName("First" + i).lastName("Guest").room(room).build(),
+                    Guest.builder().firstName("Second" + i).lastName("Guest").room(room).build()));
+            Reservation reservation = reservationRepository.save(Reservation.builder()
+                    .room(room).guests(guests).checkinDate(checkin).checkoutDate(checkin.plusDays(2)).status(ReservationStatus.RESERVED).build());
+            guests.forEach(guest -> guest.setReservation(reservation));
+            guestRepository.saveAll(guests);
+        }
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        List<Guest> guests = guestRepository.findAll();
+        guests.forEach(guest -> {
+            guest.setReservation(null);
+            guest.setRoom(null);
+        });
+        guestRepository.saveAll(guests);
+        reservationRepository.deleteAll();
+        guestRepository.deleteAll();
+        roomRepository.deleteAll();
+    }
+
+    @Test
+    void findAllLoadsRoomsAndGuestsInOneStatement() {
+        List<ReservationDto> reservations = reservationService.findAll();
+
+        assertThat(reservations).hasSize(RESERVATIONS);
+        assertThat(reservations).allSatisfy(dto -> assertThat(dto.getGuests()).hasSize(2));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void findPageUsesFixedNumberOfStatements() {
+        Page<ReservationDto> page = reservationService.findAll(PageRequest.of(1, 5, Sort.by("id")));
+
+        assertThat(page.getContent()).hasSize(5);
+        assertThat(page.getTotalElements()).isEqualTo(RESERVATIONS);
+        assertThat(page.getContent()).allSatisfy(dto -> assertThat(dto.getRoom()).isNotNull());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void findDtoByIdLoadsRoomAndGuestsInOneStatement() {
+        Long id = reservationRepository.findAll().get(0).getId();
+        statistics.clear();
+
+        assertThat(reservationService.findDtoById(id)).hasValueSatisfying(dto -> assertThat(dto.getGuests()).hasSize(2));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+}
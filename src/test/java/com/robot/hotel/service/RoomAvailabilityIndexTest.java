@@ -0,0 +1,119 @@
+package com.robot.hotel.service;
+
+import com.robot.hotel.repository.ReservationRepository;
+import com.robot.hotel.repository.ReservationStay;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RoomAvailabilityIndexTest {
+    private static final LocalDate MAY_1 = LocalDate.of(2024, 5, 1);
+
+    private final ReservationRepository reservationRepository = mock(ReservationRepository.class);
+    private final RoomAvailabilityIndex index = new RoomAvailabilityIndex(reservationRepository, mock(PlatformTransactionManager.class));
+
+    @Test
+    void treatsCheckoutDayAsFree() {
+        index.put(1L, 10L, MAY_1, MAY_1.plusDays(3));
+
+        assertThat(index.isAvailable(10L, MAY_1.plusDays(3), MAY_1.plusDays(5))).isTrue();
+        assertThat(index.isAvailable(10L, MAY_1.minusDays(2), MAY_1)).isTrue();
+        assertThat(index.isAvailable(10L, MAY_1.plusDays(2), MAY_1.plusDays(4))).isFalse();
+        assertThat(index.isAvailable(10L, MAY_1.minusDays(1), MAY_1.plusDays(1))).isFalse();
+        assertThat(index.isAvailable(11L, MAY_1, MAY_1.plusDays(3))).isTrue();
+    }
+
+    @Test
+    void detectsOverlapHiddenBehindLaterCheckins() {
+        index.put(1L, 10L, MAY_1, MAY_1.plusDays(20));
+        index.put(2L, 10L, MAY_1.plusDays(2), MAY_1.plusDays(3));
+
+        assertThat(index.isAvailable(10L, MAY_1.plusDays(10), MAY_1.plusDays(12))).isFalse();
+    }
+
+    @Test
+    void removeAndMoveReleaseTheOldRoom() {
+        index.put(1L, 10L, MAY_1, MAY_1.plusDays(3));
+        index.put(1L, 20L, MAY_1, MAY_1.plusDays(3));
+
+        assertThat(index.isAvailable(10L, MAY_1, MAY_1.plusDays(3))).isTrue();
+        assertThat(index.isAvailable(20L, MAY_1, MAY_1.plusDays(3))).isFalse();
+
+        index.remove(1L);
+
+        assertThat(index.isAvailable(20L, MAY_1, MAY_1.plusDays(3))).isTrue();
+    }
+
+    @Test
+    void rebuildLoadsStaysFromRepository() {
+        when(reservationRepository.streamAllStays()).thenReturn(Stream.of(
+                stay(5L, 30L, MAY_1, MAY_1.plusDays(20)),
+                stay(6L, 30L, MAY_1.plusDays(2), MAY_1.plusDays(3)),
+                stay(7L, 31L, MAY_1, MAY_1.plusDays(2))));
+
+        index.rebuild();
+
+        assertThat(index.isAvailable(30L, MAY_1.plusDays(10), MAY_1.plusDays(11))).isFalse();
+        assertThat(index.isAvailable(31L, MAY_1.plusDays(1), MAY_1.plusDays(2))).isFalse();
+        assertThat(index.isAvailable(31L, MAY_1.plusDays(2), MAY_1.plusDays(3))).isTrue();
+
+        index.remove(6L);
+
+        assertThat(index.isAvailable(30L, MAY_1.plusDays(10), MAY_1.plusDays(11))).isFalse();
+    }
+
+    @Test
+    void bitsetAgreesWithStaysAcrossWordBoundaries() {
+        index.rollHorizon(MAY_1);
+        index.put(1L, 10L, MAY_1.plusDays(60), MAY_1.plusDays(70));
+        index.put(2L, 10L, MAY_1.plusDays(127), MAY_1.plusDays(129));
+
+        assertThat(index.isAvailable(10L, MAY_1.plusDays(63), MAY_1.plusDays(64))).isFalse();
+        assertThat(index.isAvailable(10L, MAY_1.plusDays(64), MAY_1.plusDays(65))).isFalse();
+        assertThat(index.isAvailable(10L, MAY_1.plusDays(70), MAY_1.plusDays(127))).isTrue();
+        assertThat(index.isAvailable(10L, MAY_1.plusDays(128), MAY_1.plusDays(200))).isFalse();
+        assertThat(index.isAvailable(10L, MAY_1, MAY_1.plusDays(60))).isTrue();
+        assertThat(index.isAvailable(10L, MAY_1, MAY_1.plusDays(RoomAvailabilityIndex.HORIZON_DAYS))).isFalse();
+    }
+
+    @Test
+    void fallsBackToStaysOutsideHorizon() {
+        index.rollHorizon(MAY_1);
+        index.put(1L, 10L, MAY_1.minusDays(3), MAY_1.plusDays(1));
+        index.put(2L, 10L, MAY_1.plusDays(RoomAvailabilityIndex.HORIZON_DAYS + 5), MAY_1.plusDays(RoomAvailabilityIndex.HORIZON_DAYS + 6));
+
+        assertThat(index.isAvailable(10L, MAY_1, MAY_1.plusDays(1))).isFalse();
+        assertThat(index.isAvailable(10L, MAY_1.minusDays(5), MAY_1.minusDays(3))).isTrue();
+        assertThat(index.isAvailable(10L, MAY_1.minusDays(4), MAY_1.minusDays(2))).isFalse();
+        assertThat(index.isAvailable(10L, MAY_1.plusDays(RoomAvailabilityIndex.HORIZON_DAYS - 1),
+                MAY_1.plusDays(RoomAvailabilityIndex.HORIZON_DAYS + 5))).isTrue();
+        assertThat(index.isAvailable(10L, MAY_1.plusDays(RoomAvailabilityIndex.HORIZON_DAYS + 4),
+                MAY_1.plusDays(RoomAvailabilityIndex.HORIZON_DAYS + 6))).isFalse();
+    }
+
+    @Test
+    void rollingHorizonKeepsBookings() {
+        index.rollHorizon(MAY_1);
+        index.put(1L, 10L, MAY_1.plusDays(100), MAY_1.plusDays(102));
+
+        index.rollHorizon(MAY_1.plusDays(90));
+
+        assertThat(index.isAvailable(10L, MAY_1.plusDays(101), MAY_1.plusDays(103))).isFalse();
+        assertThat(index.isAvailable(10L, MAY_1.plusDays(102), MAY_1.plusDays(103))).isTrue();
+    }
+
+    private static ReservationStay stay(Long id, Long roomId, LocalDate checkin, LocalDate checkout) {
+        return new ReservationStay() {
+            public Long getId() { return id; }
+            public Long getRoomId() { return roomId; }
+            public LocalDate getCheckinDate() { return checkin; }
+            public LocalDate getCheckoutDate() { return checkout; }
+        };
+    }
+}
@@ -0,0 +1,104 @@
+package com.robot.hotel.service;
+
+import com.robot.hotel.domain.Guest;
+import com.robot.hotel.domain.Reservation;
+import com.robot.hotel.domain.ReservationStatus;
+import com.robot.hotel.domain.Room;
+import com.robot.hotel.domain.RoomType;
+import com.robot.hotel.dto.NightlyAvailabilityDto;
+import com.robot.hotel.repository.GuestRepository;
+import com.robot.hotel.repository.ReservationRepository;
+import com.robot.hotel.repository.RoomRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class RoomNightCalendarTest {
+    private static final LocalDate MAY_1 = LocalDate.of(2024, 5, 1);
+
+    @Autowired
+    private ReservationService reservationService;
+    @Autowired
+    private RoomService roomService;
+    @Autowired
+    private RoomAvailabilityIndex roomAvailabilityIndex;
+    @Autowired
+    private ReservationRepository reservationRepository;
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private GuestRepository guestRepository;
+
+    @AfterEach
+    void tearDown() {
+        List<Guest> guests = guestRepository.findAll();
+        guests.forEach(guest -> {
+            guest.setReservation(null);
+            guest.setRoom(null);
+        });
+        guestRepository.saveAll(guests);
+        reservationRepository.deleteAll();
+        guestRepository.deleteAll();
+        roomRepository.deleteAll();
+        roomAvailabilityIndex.rebuild();
+    }
+
+    @Test
+    void followsReservationsThroughCreateMoveAndRemoval() {
+        Room first = roomRepository.save(Room.builder().roomNumber(401).roomType(RoomType.TWIN).maxNumberOfGuests(2).isAvailable(true).build());
+        Room second = roomRepository.save(Room.builder().roomNumber(402).roomType(RoomType.TWIN).maxNumberOfGuests(2).isAvailable(true).build());
+        Guest guest = guestRepository.save(Guest.builder().firstName("Night").lastName("Owl").build());
+
+        Reservation reservation = Reservation.builder().checkinDate(MAY_1).checkoutDate(MAY_1.plusDays(2)).status(ReservationStatus.RESERVED).build();
+        reservationService.createReservation(reservation, List.of(guest.getId()), first.getId());
+
+        assertThat(roomService.findAvailabilityByNight(MAY_1, MAY_1.plusDays(3)))
+                .extracting(NightlyAvailabilityDto::getOccupiedRooms)
+                .containsExactly(1L, 1L, 0L);
+        assertThat(roomService.findFreeRooms(null, 1, MAY_1.plusDays(1), MAY_1.plusDays(2)))
+                .extracting(room -> room.getRoomNumber())
+                .containsExactly(402);
+
+        reservationService.moveGuestToRoom(guest.getId(), first.getId(), second.getId());
+
+        assertThat(roomService.findFreeRooms(null, 1, MAY_1, MAY_1.plusDays(2)))
+                .extracting(room -> room.getRoomNumber())
+                .containsExactly(401);
+
+        // Removing the last guest deletes the reservation.
+        reservationService.removeGuestsFromReservation(reservation.getId(), List.of(guest.getId()));
+
+        assertThat(roomService.findAvailabilityByNight(MAY_1, MAY_1.plusDays(2)))
+                .allSatisfy(night -> assertThat(night.getFreeRooms()).isEqualTo(night.getTotalRooms()));
+    }
+
+    @Test
+    void rejectsMovingIntoARoomBookedForOverlappingNights() {
+        Room first = roomRepository.save(Room.builder().roomNumber(401).roomType(RoomType.TWIN).maxNumberOfGuests(3).isAvailable(true).build());
+        Room second = roomRepository.save(Room.builder().roomNumber(402).roomType(RoomType.TWIN).maxNumberOfGuests(3).isAvailable(true).build());
+        Guest mover = guestRepository.save(Guest.builder().firstName("Night").lastName("Owl").build());
+        Guest holder = guestRepository.save(Guest.builder().firstName("Early").lastName("Bird").build());
+
+        Reservation moving = Reservation.builder().checkinDate(MAY_1).checkoutDate(MAY_1.plusDays(2)).status(ReservationStatus.RESERVED).build();
+        reservationService.createReservation(moving, List.of(mover.getId()), first.getId());
+        Reservation holding = Reservation.builder().checkinDate(MAY_1.plusDays(1)).checkoutDate(MAY_1.plusDays(3)).status(ReservationStatus.RESERVED).build();
+        reservationService.createReservation(holding, List.of(holder.getId()), second.getId());
+
+        assertThatThrownBy(() -> reservationService.moveGuestToRoom(mover.getId(), first.getId(), second.getId()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("The room is not available for these dates.");
+        assertThat(roomService.findAvailabilityByNight(MAY_1, MAY_1.plusDays(3)))
+                .extracting(NightlyAvailabilityDto::getOccupiedRooms)
+                .containsExactly(1L, 2L, 1L);
+    }
+}
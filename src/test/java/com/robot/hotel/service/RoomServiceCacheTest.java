@@ -0,0 +1,91 @@
+package com.robot.hotel.service;
+
+import com.robot.hotel.domain.Room;
+import com.robot.hotel.domain.RoomType;
+import com.robot.hotel.dto.RoomDto;
+import com.robot.hotel.repository.RoomRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class RoomServiceCacheTest {
+    @Autowired
+    private RoomService roomService;
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private RoomAvailabilityIndex roomAvailabilityIndex;
+
+    private Room room;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        room = roomRepository.save(Room.builder().roomNumber(707).roomType(RoomType.SUITE).pricePerNight(300).maxNumberOfGuests(3).build());
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        roomService.deleteRoom(room.getId());
+    }
+
+    @Test
+    void repeatedLookupsAreServedFromCache() {
+        roomService.findDtoById(room.getId());
+        roomService.findDtoById(room.getId());
+        roomService.findByRoomType(RoomType.SUITE);
+        roomService.findByRoomType(RoomType.SUITE);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", RoomService.ROOMS).tag("result", "hit")
+                .functionCounter().count()).isPositive();
+    }
+
+    @Test
+    void updatesEvictCachedRooms() {
+        roomService.findDtoById(room.getId());
+        roomService.findByRoomType(RoomType.SUITE);
+
+        roomService.updatePricePerNight(room.getId(), 450);
+        roomService.updateRoomType(room.getId(), RoomType.PENTHOUSE);
+
+        assertThat(roomService.findDtoById(room.getId())).map(RoomDto::getPricePerNight).hasValue(450.0);
+        assertThat(roomService.findByRoomType(RoomType.SUITE)).isEmpty();
+        assertThat(roomService.findByRoomType(RoomType.PENTHOUSE)).extracting(RoomDto::getRoomNumber).containsExactly(707);
+    }
+
+    @Test
+    void deletedRoomWithRecordedStayIsNotAvailable() {
+        Room booked = roomRepository.save(Room.builder().roomNumber(708).roomType(RoomType.SUITE).pricePerNight(300).maxNumberOfGuests(3).build());
+        LocalDate checkin = LocalDate.of(2030, 3, 1);
+        roomAvailabilityIndex.put(-708L, booked.getId(), checkin, checkin.plusDays(2));
+        try {
+            assertThat(roomService.isRoomAvailable(booked.getId(), checkin.plusDays(2), checkin.plusDays(4))).isTrue();
+
+            roomService.deleteRoom(booked.getId());
+
+            assertThat(roomService.isRoomAvailable(booked.getId(), checkin.plusDays(2), checkin.plusDays(4))).isFalse();
+        } finally {
+            roomAvailabilityIndex.remove(-708L);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package db.migration;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EnumCodesMigrationTest {
+    private static final String URL = "jdbc:h2:mem:enum_codes;DB_CLOSE_DELAY=-1";
+
+    @Test
+    void mapsTheStatusesAndRoomTypesFoundInExistingData() throws SQLException {
+        migrateTo("4");
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("insert into room (id, room_type) values (1, 'Deluxe'), (2, 'Standard'), (3, 'Chalet')");
+            statement.executeUpdate("insert into reservation (id, status) values "
+                    + "(1, 'Reserved'), (2, 'Started'), (3, 'Checked-In'), (4, 'Completed'), (5, 'Canceled'), (6, 'Pending'), (7, null)");
+        }
+
+        migrateTo("5");
+
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            assertThat(codes(statement, "select room_type from room order by id")).containsExactly("5", "1", "1");
+            assertThat(codes(statement, "select status from reservation order by id"))
+                    .containsExactly("1", "2", "2", "3", "4", "1", null);
+        }
+    }
+
+    private static void migrateTo(String version) {
+        Flyway.configure().dataSource(URL, "sa", "").target(version).load().migrate();
+    }
+
+    private static List<String> codes(Statement statement, String sql) throws SQLException {
+        List<String> codes = new ArrayList<>();
+        try (ResultSet rows = statement.executeQuery(sql)) {
+            while (rows.next()) {
+                codes.add(rows.getString(1));
+            }
+        }
+        return codes;
+    }
+}
@@ -0,0 +1,23 @@
+package db.migration;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GuestDateOfBirthMigrationTest {
+    @Test
+    void parsesTheFormatsFoundInGuestData() {
+        assertThat(V6__guest_date_of_birth.parse("01.02.1990")).hasValue(LocalDate.of(1990, 2, 1));
+        assertThat(V6__guest_date_of_birth.parse("1990-02-01")).hasValue(LocalDate.of(1990, 2, 1));
+        assertThat(V6__guest_date_of_birth.parse(" 1/2/1990 ")).hasValue(LocalDate.of(1990, 2, 1));
+        assertThat(V6__guest_date_of_birth.parse("19900201")).hasValue(LocalDate.of(1990, 2, 1));
+    }
+
+    @Test
+    void rejectsInvalidDatesInsteadOfAdjustingThem() {
+        assertThat(V6__guest_date_of_birth.parse("31.02.1990")).isEmpty();
+        assertThat(V6__guest_date_of_birth.parse("unknown")).isEmpty();
+    }
+}
@@ -0,0 +1,56 @@
+package db.migration;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GuestPassportNumberMigrationTest {
+    private static final String URL = "jdbc:h2:mem:guest_passport_number;DB_CLOSE_DELAY=-1";
+
+    @Test
+    void quarantinesSharedPassportNumbersAndMakesThemUnique() throws SQLException {
+        migrateTo("6");
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("insert into guest (id, passport_number) values "
+                    + "(1, 'TO19546883'), (2, 'AB1'), (3, 'TO19546883'), (4, null), (5, 'TO19546883'), (6, null)");
+        }
+
+        migrateTo("7");
+
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            assertThat(rows(statement, "select passport_number from guest order by id"))
+                    .containsExactly("TO19546883", "AB1", null, null, null, null);
+            assertThat(rows(statement, "select guest_id || ':' || passport_number from guest_duplicate_passport_number order by guest_id"))
+                    .containsExactly("3:TO19546883", "5:TO19546883");
+            assertThatThrownBy(() -> statement.executeUpdate("update guest set passport_number = 'AB1' where id = 4"))
+                    .isInstanceOf(SQLException.class)
+                    .hasMessageContaining("UK_GUEST_PASSPORT_NUMBER");
+        }
+    }
+
+    private static void migrateTo(String version) {
+        Flyway.configure().dataSource(URL, "sa", "").target(version).load().migrate();
+    }
+
+    private static List<String> rows(Statement statement, String sql) throws SQLException {
+        List<String> rows = new ArrayList<>();
+        try (ResultSet resultSet = statement.executeQuery(sql)) {
+            while (resultSet.next()) {
+                rows.add(resultSet.getString(1));
+            }
+        }
+        return rows;
+    }
+}